@@ -0,0 +1,208 @@
+package com.lms.config;
+
+import com.lms.domain.Course;
+import com.lms.service.CatalogChangedEvent;
+import com.lms.service.CourseService;
+import com.lms.web.CatalogResponseCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Handles catalog cache warm-up. On startup it preloads featured courses, free courses,
+ * the published catalog and the top-N course details into both the Redis caches and the
+ * pre-serialized response cache before the node reports ready; after every committed
+ * catalog change it re-warms the affected entries asynchronously.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@Order(2)
+public class CatalogCacheWarmer implements ApplicationRunner, DisposableBean {
+
+    private final CourseService courseService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Single background thread so bursts of catalog changes re-warm sequentially
+     */
+    private final ExecutorService rewarmExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-rewarm");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Collapses multiple pending re-warm requests into one run
+     */
+    private final AtomicBoolean rewarmPending = new AtomicBoolean(false);
+
+    /**
+     * Courses changed since the last re-warm started, all of which the next run warms
+     */
+    private final Set<Long> changedCourseIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
+    @Value("${app.catalog.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${app.catalog.warmup.top-course-details:20}")
+    private int topCourseDetails;
+
+    public CatalogCacheWarmer(CourseService courseService,
+                              CatalogResponseCache catalogResponseCache,
+                              PlatformTransactionManager transactionManager) {
+        this.courseService = courseService;
+        this.catalogResponseCache = catalogResponseCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Warms the catalog synchronously during startup, before the readiness state flips.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupEnabled) {
+            log.info("Catalog warm-up disabled");
+            warmedUp.set(true);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int warmed = warmCatalog(List.of());
+        warmedUp.set(true);
+        log.info("Catalog warm-up finished: {} entries in {} ms", warmed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether the startup warm-up has completed.
+     *
+     * @return true once the catalog has been warmed (or warm-up is disabled)
+     */
+    public boolean isWarmedUp() {
+        return warmedUp.get();
+    }
+
+    /**
+     * Re-warms the catalog in the background after a committed change.
+     *
+     * @param event the catalog change event
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!warmupEnabled || !warmedUp.get()) {
+            return;
+        }
+        if (event.courseId() != null) {
+            changedCourseIds.add(event.courseId());
+        }
+        if (!rewarmPending.compareAndSet(false, true)) {
+            return;
+        }
+        rewarmExecutor.execute(() -> {
+            rewarmPending.set(false);
+            List<Long> changed = new ArrayList<>();
+            for (Long courseId : changedCourseIds) {
+                if (changedCourseIds.remove(courseId)) {
+                    changed.add(courseId);
+                }
+            }
+            try {
+                warmCatalog(changed);
+            } catch (Exception e) {
+                log.warn("Catalog re-warm after change to courses {} failed: {}", changed, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        rewarmExecutor.shutdownNow();
+    }
+
+    private int warmCatalog(Collection<Long> changedCourseIds) {
+        int warmed = 0;
+        List<Course> featured = load("featured courses", courseService::getFeaturedCourses);
+        if (featured != null) {
+            warmed += warmResponse(CatalogResponseCache.KEY_FEATURED, () -> featured);
+        }
+        List<Course> published = load("published courses", courseService::getAllPublishedCourses);
+        if (published != null) {
+            warmed += warmResponse(CatalogResponseCache.KEY_ALL_PUBLISHED, () -> published);
+        }
+        warmed += warmResponse(CatalogResponseCache.KEY_FREE, courseService::getFreeCourses);
+
+        // Top-N details: featured first, then the rest of the catalog, plus the courses that changed
+        Set<Long> courseIds = new LinkedHashSet<>(changedCourseIds);
+        int topN = topCourseDetails + courseIds.size();
+        addCourseIds(courseIds, featured, topN);
+        addCourseIds(courseIds, published, topN);
+        for (Long courseId : courseIds) {
+            try {
+                courseService.getCourseById(courseId);
+                warmed++;
+            } catch (Exception e) {
+                log.warn("Failed to warm course details {}: {}", courseId, e.getMessage());
+            }
+            warmed += warmResponse(CatalogResponseCache.lecturesKey(courseId),
+                    () -> courseService.getCourseLectures(courseId));
+        }
+        return warmed;
+    }
+
+    private void addCourseIds(Set<Long> courseIds, List<Course> courses, int limit) {
+        if (courses == null) {
+            return;
+        }
+        for (Course course : courses) {
+            if (courseIds.size() >= limit) {
+                return;
+            }
+            courseIds.add(course.getId());
+        }
+    }
+
+    private List<Course> load(String what, Supplier<List<Course>> loader) {
+        try {
+            return loader.get();
+        } catch (Exception e) {
+            log.warn("Failed to warm {}: {}", what, e.getMessage());
+            return null;
+        }
+    }
+
+    private int warmResponse(String key, Supplier<?> loader) {
+        try {
+            // Serialize inside a read-only transaction so lazy associations can load
+            readOnlyTransaction.executeWithoutResult(status -> catalogResponseCache.warm(key, loader));
+            return 1;
+        } catch (Exception e) {
+            log.warn("Failed to warm catalog response {}: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+}
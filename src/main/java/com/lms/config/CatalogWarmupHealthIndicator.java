@@ -0,0 +1,31 @@
+package com.lms.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles the readiness contribution of the catalog warm-up. The node reports
+ * OUT_OF_SERVICE until the startup warm-up has finished, so load balancers only
+ * route traffic to it once the catalog caches are hot.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component("catalogWarmup")
+public class CatalogWarmupHealthIndicator implements HealthIndicator {
+
+    private final CatalogCacheWarmer catalogCacheWarmer;
+
+    public CatalogWarmupHealthIndicator(CatalogCacheWarmer catalogCacheWarmer) {
+        this.catalogCacheWarmer = catalogCacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        if (catalogCacheWarmer.isWarmedUp()) {
+            return Health.up().withDetail("warmedUp", true).build();
+        }
+        return Health.outOfService().withDetail("warmedUp", false).build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.lms.config;
+
+import com.lms.service.CatalogVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared catalog version over Redis. Enabled with {@code app.catalog.version.redis.enabled=true};
+ * each node subscribes to version bumps made by the others so cached catalog responses are
+ * invalidated everywhere and all nodes serve the same ETags.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.catalog.version.redis.enabled", havingValue = "true")
+public class ClusteredCatalogConfig {
+
+    @Bean
+    public RedisMessageListenerContainer catalogVersionListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        CatalogVersionService catalogVersionService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> catalogVersionService.onRemoteBump(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CatalogVersionService.VERSION_CHANNEL));
+        log.info("Shared catalog version enabled via Redis channel {}", CatalogVersionService.VERSION_CHANNEL);
+        return container;
+    }
+}
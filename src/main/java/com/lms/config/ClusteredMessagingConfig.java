@@ -0,0 +1,41 @@
+package com.lms.config;
+
+import com.lms.service.RealtimeDeliveryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Clustered STOMP messaging over Redis pub/sub. Enabled with
+ * {@code app.messaging.broker=redis}; each node subscribes to the fan-out channel and
+ * hands received pushes to its local simple broker, which only reaches the sessions
+ * connected to that node. Locally, any Redis instance (e.g. a Docker container) is
+ * enough to run two nodes side by side.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.messaging.broker", havingValue = "redis")
+public class ClusteredMessagingConfig {
+
+    @Bean
+    public RedisMessageListenerContainer stompFanoutListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     RealtimeDeliveryService realtimeDeliveryService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> realtimeDeliveryService.deliverLocally(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RealtimeDeliveryService.FANOUT_CHANNEL));
+        log.info("Clustered STOMP messaging enabled via Redis channel {}", RealtimeDeliveryService.FANOUT_CHANNEL);
+        return container;
+    }
+}
@@ -0,0 +1,67 @@
+package com.lms.config;
+
+import com.lms.security.JwtUser;
+import com.lms.service.CourseChannelService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * WebSocket interceptor that guards course channel topics.
+ * Only members of a course may subscribe to /topic/course/{courseId}/chat. Any other
+ * destination under /topic/course/, and any pattern destination (the broker matches
+ * '*', '?' and '{...}' against topics), is rejected so it cannot reach a channel's messages.
+ */
+@Slf4j
+@Component
+public class CourseChannelSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String COURSE_TOPIC_PREFIX = "/topic/course/";
+    private static final Pattern CHANNEL_TOPIC = Pattern.compile("^/topic/course/(\\d{1,18})/chat$");
+
+    private final CourseChannelService courseChannelService;
+
+    public CourseChannelSubscriptionInterceptor(CourseChannelService courseChannelService) {
+        this.courseChannelService = courseChannelService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || accessor.getDestination() == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0) {
+            log.warn("Rejected pattern subscription to {}", destination);
+            throw new MessageDeliveryException("Pattern subscriptions are not allowed");
+        }
+        Matcher matcher = CHANNEL_TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            if (destination.startsWith(COURSE_TOPIC_PREFIX)) {
+                log.warn("Rejected subscription to unknown course topic {}", destination);
+                throw new MessageDeliveryException("Unknown course channel topic");
+            }
+            return message;
+        }
+        Long courseId = Long.valueOf(matcher.group(1));
+        Long userId = accessor.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof JwtUser jwtUser ? jwtUser.getId() : null;
+        if (userId == null || !courseChannelService.isMember(courseId, userId)) {
+            log.warn("Rejected subscription to course {} channel for user {}", courseId, userId);
+            throw new MessageDeliveryException("Not a member of this course channel");
+        }
+        return message;
+    }
+}
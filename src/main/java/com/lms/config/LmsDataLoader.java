@@ -5,20 +5,25 @@ import com.lms.repository.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 /**
  * Data Loader - Creates sample featured courses and demo users
- * Runs on application startup
+ * Runs on application startup, before the catalog cache warm-up
  */
 @Slf4j
 @Component
+@Order(1)
+@ConditionalOnProperty(name = "app.sample-data.enabled", havingValue = "true", matchIfMissing = true)
 public class LmsDataLoader implements CommandLineRunner {
 
     @Autowired
@@ -57,7 +62,7 @@ public class LmsDataLoader implements CommandLineRunner {
             log.info("Default student created: {} / Password: student123", student.getEmail());
             
             // Check if featured courses already exist
-            long featuredCount = courseRepository.findFeaturedPublishedCourses().size();
+            long featuredCount = courseRepository.countFeaturedPublishedCourses();
             if (featuredCount >= 10) {
                 log.info("Featured courses already exist ({}). Skipping course creation.", featuredCount);
                 return;
@@ -122,8 +127,9 @@ public class LmsDataLoader implements CommandLineRunner {
     }
 
     private UserAccount createDefaultAdmin() {
-        if (userAccountRepository.findByEmail("admin@lms.com").isPresent()) {
-            return userAccountRepository.findByEmail("admin@lms.com").get();
+        Optional<UserAccount> existing = userAccountRepository.findByEmail("admin@lms.com");
+        if (existing.isPresent()) {
+            return existing.get();
         }
 
         UserAccount admin = new UserAccount();
@@ -145,8 +151,9 @@ public class LmsDataLoader implements CommandLineRunner {
     }
 
     private UserAccount createDefaultTeacher() {
-        if (userAccountRepository.findByEmail("teacher@lms.com").isPresent()) {
-            return userAccountRepository.findByEmail("teacher@lms.com").get();
+        Optional<UserAccount> existing = userAccountRepository.findByEmail("teacher@lms.com");
+        if (existing.isPresent()) {
+            return existing.get();
         }
 
         UserAccount teacher = new UserAccount();
@@ -170,8 +177,9 @@ public class LmsDataLoader implements CommandLineRunner {
     }
 
     private UserAccount createDefaultStudent() {
-        if (userAccountRepository.findByEmail("student@lms.com").isPresent()) {
-            return userAccountRepository.findByEmail("student@lms.com").get();
+        Optional<UserAccount> existing = userAccountRepository.findByEmail("student@lms.com");
+        if (existing.isPresent()) {
+            return existing.get();
         }
 
         UserAccount student = new UserAccount();
@@ -0,0 +1,47 @@
+package com.lms.config;
+
+import com.lms.service.ConversationSummaryService;
+import com.lms.service.UnreadCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles the one-off backfill of the messaging read models (unread counters and inbox
+ * summaries) for conversations and users that existed before they were maintained.
+ * Runs before the node reports ready and is a no-op once every row is populated.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@Order(3)
+public class MessagingReadModelBackfill implements ApplicationRunner {
+
+    private final UnreadCounterService unreadCounterService;
+    private final ConversationSummaryService conversationSummaryService;
+
+    public MessagingReadModelBackfill(UnreadCounterService unreadCounterService,
+                                      ConversationSummaryService conversationSummaryService) {
+        this.unreadCounterService = unreadCounterService;
+        this.conversationSummaryService = conversationSummaryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            unreadCounterService.backfill();
+        } catch (Exception e) {
+            // Reads fall back to an aggregate query until the counters are backfilled
+            log.warn("Unread counter backfill failed: {}", e.getMessage(), e);
+        }
+        try {
+            conversationSummaryService.backfill();
+        } catch (Exception e) {
+            log.warn("Conversation summary backfill failed: {}", e.getMessage(), e);
+        }
+    }
+}
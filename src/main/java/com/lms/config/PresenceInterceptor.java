@@ -0,0 +1,31 @@
+package com.lms.config;
+
+import com.lms.service.PresenceService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket interceptor that keeps presence fresh.
+ * Every inbound frame, including STOMP heartbeats, marks its session as alive.
+ */
+@Component
+public class PresenceInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    public PresenceInterceptor(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            presenceService.touch(sessionId);
+        }
+        return message;
+    }
+}
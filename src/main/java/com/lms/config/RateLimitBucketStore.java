@@ -0,0 +1,53 @@
+package com.lms.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Handles the per-client rate limit buckets. The store is bounded in size and drops
+ * buckets that have been idle longer than the longest refill window (by then they would
+ * be full again anyway), so a flood of distinct client keys cannot grow the heap without
+ * bound. Size, hit and eviction metrics are published as {@code rateLimitBuckets}.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class RateLimitBucketStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimitBucketStore(MeterRegistry meterRegistry,
+                                @Value("${app.rate-limit.store.max-size:100000}") long maxSize,
+                                @Value("${app.rate-limit.store.expire-after-access:PT1H}") Duration expireAfterAccess) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+        log.info("Rate limit bucket store: max {} buckets, idle expiry {}", maxSize, expireAfterAccess);
+    }
+
+    /**
+     * Returns the bucket for a key, creating it on first use. Creation only locks the
+     * key being created, never the whole store.
+     *
+     * @param key the bucket key
+     * @param bucketSupplier creates a new bucket
+     * @return the bucket
+     */
+    public Bucket getBucket(String key, Supplier<Bucket> bucketSupplier) {
+        return buckets.get(key, k -> bucketSupplier.get());
+    }
+}
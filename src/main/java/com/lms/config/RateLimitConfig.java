@@ -3,15 +3,17 @@ package com.lms.config;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.LocalBucketBuilder;
 import io.github.bucket4j.Refill;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 @Slf4j
@@ -39,46 +41,45 @@ public class RateLimitConfig {
     @Value("${app.rate-limit.upload.requests-per-hour:100}")
     private int uploadRequestsPerHour;
 
-    // In-memory storage for buckets (can be replaced with Redis later)
-    private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
+    /**
+     * How long to stay on local buckets after Redis fails, before trying it again
+     */
+    @Value("${app.rate-limit.redis.fail-open-cooldown:PT30S}")
+    private Duration failOpenCooldown;
+
+    // Bounded, idle-evicting in-memory storage for buckets
+    @Autowired
+    private RateLimitBucketStore bucketStore;
+
+    // Present only when app.rate-limit.mode=redis
+    @Autowired
+    private ObjectProvider<RedisRateLimitBackend> redisBackendProvider;
+
+    private volatile long redisRetryAt = 0L;
 
     @Bean
     public Supplier<Bucket> apiBucketSupplier() {
-        return () -> {
-            if (!rateLimitEnabled) {
-                return createUnlimitedBucket();
-            }
-            return Bucket.builder()
-                    .addLimit(Bandwidth.classic(apiRequestsPerMinute, Refill.intervally(apiRequestsPerMinute, Duration.ofMinutes(1))))
-                    .addLimit(Bandwidth.classic(apiRequestsPerHour, Refill.intervally(apiRequestsPerHour, Duration.ofHours(1))))
-                    .build();
-        };
+        return limitedOrUnlimited(apiRequestsPerMinute, apiRequestsPerHour);
     }
 
     @Bean
     public Supplier<Bucket> authBucketSupplier() {
-        return () -> {
-            if (!rateLimitEnabled) {
-                return createUnlimitedBucket();
-            }
-            return Bucket.builder()
-                    .addLimit(Bandwidth.classic(authRequestsPerMinute, Refill.intervally(authRequestsPerMinute, Duration.ofMinutes(1))))
-                    .addLimit(Bandwidth.classic(authRequestsPerHour, Refill.intervally(authRequestsPerHour, Duration.ofHours(1))))
-                    .build();
-        };
+        return limitedOrUnlimited(authRequestsPerMinute, authRequestsPerHour);
     }
 
     @Bean
     public Supplier<Bucket> uploadBucketSupplier() {
-        return () -> {
-            if (!rateLimitEnabled) {
-                return createUnlimitedBucket();
-            }
-            return Bucket.builder()
-                    .addLimit(Bandwidth.classic(uploadRequestsPerMinute, Refill.intervally(uploadRequestsPerMinute, Duration.ofMinutes(1))))
-                    .addLimit(Bandwidth.classic(uploadRequestsPerHour, Refill.intervally(uploadRequestsPerHour, Duration.ofHours(1))))
-                    .build();
-        };
+        return limitedOrUnlimited(uploadRequestsPerMinute, uploadRequestsPerHour);
+    }
+
+    private Supplier<Bucket> limitedOrUnlimited(int perMinute, int perHour) {
+        if (!rateLimitEnabled) {
+            return this::createUnlimitedBucket;
+        }
+        return new LimitedBucketSupplier(BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(perMinute, Refill.intervally(perMinute, Duration.ofMinutes(1))))
+                .addLimit(Bandwidth.classic(perHour, Refill.intervally(perHour, Duration.ofHours(1))))
+                .build());
     }
 
     private Bucket createUnlimitedBucket() {
@@ -92,6 +93,53 @@ public class RateLimitConfig {
      * Get or create a bucket for a specific client
      */
     public Bucket getBucket(String key, Supplier<Bucket> bucketSupplier) {
-        return bucketCache.computeIfAbsent(key, k -> bucketSupplier.get());
+        return bucketStore.getBucket(key, bucketSupplier);
+    }
+
+    /**
+     * Consume one token for a client. In redis mode the shared cluster-wide bucket is used;
+     * if Redis fails, the node falls back to its local bucket (fail-open) for a cooldown period.
+     */
+    public ConsumptionProbe tryConsume(String key, Supplier<Bucket> bucketSupplier) {
+        RedisRateLimitBackend redisBackend = redisBackendProvider.getIfAvailable();
+        if (redisBackend != null && bucketSupplier instanceof LimitedBucketSupplier limited
+                && System.currentTimeMillis() >= redisRetryAt) {
+            try {
+                Bucket distributed = bucketStore.getBucket("redis|" + key,
+                        () -> redisBackend.getBucket(key, limited.configuration()));
+                return distributed.tryConsumeAndReturnRemaining(1);
+            } catch (Exception e) {
+                redisRetryAt = System.currentTimeMillis() + failOpenCooldown.toMillis();
+                log.warn("Distributed rate limiting unavailable, using local buckets for {}: {}",
+                        failOpenCooldown, e.getMessage());
+            }
+        }
+        return getBucket(key, bucketSupplier).tryConsumeAndReturnRemaining(1);
+    }
+
+    /**
+     * Bucket supplier that also exposes its configuration, so the same limits can back
+     * either a local bucket or a distributed one.
+     */
+    static final class LimitedBucketSupplier implements Supplier<Bucket> {
+
+        private final BucketConfiguration configuration;
+
+        LimitedBucketSupplier(BucketConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        BucketConfiguration configuration() {
+            return configuration;
+        }
+
+        @Override
+        public Bucket get() {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder.build();
+        }
     }
 }
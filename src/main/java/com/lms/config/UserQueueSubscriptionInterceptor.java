@@ -0,0 +1,48 @@
+package com.lms.config;
+
+import com.lms.security.JwtUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * WebSocket interceptor that guards per-user queues.
+ * Chat messages, notifications and unread counters are pushed to
+ * /queue/{messages|notifications|unread}/{userId}; only that user may subscribe.
+ */
+@Slf4j
+@Component
+public class UserQueueSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final Pattern USER_QUEUE = Pattern.compile("^/queue/(messages|notifications|unread)/(.*)$");
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || accessor.getDestination() == null) {
+            return message;
+        }
+        Matcher matcher = USER_QUEUE.matcher(accessor.getDestination());
+        if (!matcher.matches()) {
+            return message;
+        }
+        Long userId = accessor.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof JwtUser jwtUser ? jwtUser.getId() : null;
+        if (userId == null || !matcher.group(2).equals(userId.toString())) {
+            log.warn("Rejected subscription to {} for user {}", accessor.getDestination(), userId);
+            throw new MessageDeliveryException("Cannot subscribe to another user's queue");
+        }
+        return message;
+    }
+}
@@ -1,21 +1,38 @@
 package com.lms.config;
 
+import com.lms.web.ConcurrencyLimitInterceptor;
+import com.lms.web.CurrentUserArgumentResolver;
 import com.lms.web.RateLimitInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
     @Autowired
     private RateLimitInterceptor rateLimitInterceptor;
 
+    @Autowired
+    private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/**"); // Shed load before any per-client work
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/api/**"); // Apply rate limiting to all API endpoints
     }
-}
 
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver); // @CurrentUser parameters
+    }
+}
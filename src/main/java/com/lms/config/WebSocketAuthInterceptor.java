@@ -1,6 +1,6 @@
 package com.lms.config;
 
-import com.lms.security.JwtService;
+import com.lms.security.JwtPrincipalResolver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -9,7 +9,6 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
 /**
@@ -20,12 +19,10 @@ import org.springframework.stereotype.Component;
 @Component
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
-    private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final JwtPrincipalResolver jwtPrincipalResolver;
 
-    public WebSocketAuthInterceptor(JwtService jwtService, UserDetailsService userDetailsService) {
-        this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+    public WebSocketAuthInterceptor(JwtPrincipalResolver jwtPrincipalResolver) {
+        this.jwtPrincipalResolver = jwtPrincipalResolver;
     }
 
     @Override
@@ -44,12 +41,11 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             
             if (token != null) {
                 try {
-                    String username = jwtService.extractSubject(token);
-                    if (username != null) {
-                        var userDetails = userDetailsService.loadUserByUsername(username);
+                    var userDetails = jwtPrincipalResolver.resolve(token);
+                    if (userDetails != null) {
                         var auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                         accessor.setUser(auth);
-                        log.info("WebSocket authenticated user: {}", username);
+                        log.info("WebSocket authenticated user: {}", userDetails.getUsername());
                     }
                 } catch (Exception e) {
                     log.warn("WebSocket authentication failed: {}", e.getMessage());
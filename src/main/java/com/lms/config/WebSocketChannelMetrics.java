@@ -0,0 +1,49 @@
+package com.lms.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Publishes queue depth and active thread gauges for the STOMP channel executors, tagged
+ * by channel (inbound, outbound, broker). A growing outbound queue is the first sign of
+ * clients that cannot keep up.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component
+public class WebSocketChannelMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ThreadPoolTaskExecutor> executors;
+
+    public WebSocketChannelMetrics(MeterRegistry meterRegistry,
+                                   @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inbound,
+                                   @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outbound,
+                                   @Qualifier("brokerChannelExecutor") ThreadPoolTaskExecutor broker) {
+        this.meterRegistry = meterRegistry;
+        this.executors = Map.of("inbound", inbound, "outbound", outbound, "broker", broker);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerGauges() {
+        executors.forEach((channel, executor) -> {
+            Gauge.builder("websocket.channel.queue.depth", executor,
+                            e -> e.getThreadPoolExecutor().getQueue().size())
+                    .description("Messages waiting for a STOMP channel thread")
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+            Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("STOMP channel threads currently delivering messages")
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+        });
+    }
+}
@@ -1,20 +1,35 @@
 package com.lms.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.time.Duration;
 
 /**
  * WebSocket configuration for real-time messaging.
  * Configures STOMP messaging protocol for chat functionality.
+ * Channel executors are bounded and every session has a send time and buffer limit,
+ * so a slow client is disconnected instead of holding up delivery to everyone else.
  *
  * @author VisionWaves
  * @version 1.0
  */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
@@ -22,12 +37,88 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private WebSocketAuthInterceptor authInterceptor;
 
+    @Autowired
+    private PresenceInterceptor presenceInterceptor;
+
+    /**
+     * Lazy because channel membership depends on the messaging template this configuration creates
+     */
+    @Autowired
+    @Lazy
+    private CourseChannelSubscriptionInterceptor courseChannelSubscriptionInterceptor;
+
+    @Autowired
+    private UserQueueSubscriptionInterceptor userQueueSubscriptionInterceptor;
+
+    /**
+     * Scheduler for broker heartbeats, provided by the message broker configuration itself
+     */
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * How long a single send to a client may block before the session is closed
+     */
+    @Value("${app.messaging.transport.send-time-limit:PT10S}")
+    private Duration sendTimeLimit;
+
+    /**
+     * Bytes that may be buffered for a client while a send is in progress before the session is closed
+     */
+    @Value("${app.messaging.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.messaging.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.messaging.transport.inbound.pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${app.messaging.transport.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.messaging.transport.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${app.messaging.transport.outbound.queue-capacity:20000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.messaging.transport.broker.pool-size:8}")
+    private int brokerPoolSize;
+
+    @Value("${app.messaging.transport.broker.queue-capacity:20000}")
+    private int brokerQueueCapacity;
+
+    /**
+     * Per-session buffered bytes for SockJS streaming transports before the response is recycled
+     */
+    @Value("${app.messaging.transport.sockjs.stream-bytes-limit:131072}")
+    private int sockJsStreamBytesLimit;
+
+    /**
+     * Messages cached per SockJS session while the client is between polls
+     */
+    @Value("${app.messaging.transport.sockjs.http-message-cache-size:200}")
+    private int sockJsHttpMessageCacheSize;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic", "/queue");
+        // Enable a simple in-memory message broker to carry messages back to the client.
+        // With app.messaging.broker=redis, pushes are fanned out to every node's broker (see ClusteredMessagingConfig)
+        // Heartbeats every 10s let presence expire sessions whose connection silently dropped
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{10000, 10000})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         // Prefix for messages bound to methods annotated with @MessageMapping
         config.setApplicationDestinationPrefixes("/app");
+        config.configureBrokerChannel().taskExecutor()
+                .corePoolSize(brokerPoolSize)
+                .maxPoolSize(brokerPoolSize)
+                .queueCapacity(brokerQueueCapacity);
     }
 
     @Override
@@ -35,12 +126,51 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Register the /ws endpoint for WebSocket connections
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // Allow all origins (configure properly in production)
-                .withSockJS(); // Enable SockJS fallback options
+                .withSockJS() // Enable SockJS fallback options
+                .setStreamBytesLimit(sockJsStreamBytesLimit)
+                .setHttpMessageCacheSize(sockJsHttpMessageCacheSize);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Exceeding either send limit closes the session with SESSION_NOT_RELIABLE
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                        if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+                            slowConsumerDisconnects().increment();
+                            log.warn("Closed slow WebSocket session {}", session.getId());
+                        }
+                        super.afterConnectionClosed(session, closeStatus);
+                    }
+                });
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(authInterceptor);
+        registration.interceptors(authInterceptor, presenceInterceptor, courseChannelSubscriptionInterceptor,
+                userQueueSubscriptionInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inboundPoolSize)
+                .maxPoolSize(inboundPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    private Counter slowConsumerDisconnects() {
+        return Counter.builder("websocket.sessions.slow.disconnects")
+                .description("WebSocket sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
     }
 }
 
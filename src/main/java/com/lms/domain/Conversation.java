@@ -1,5 +1,6 @@
 package com.lms.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
@@ -56,6 +57,22 @@ public class Conversation {
     @Column
     private LocalDateTime lastMessageAt;
     
+    /**
+     * Unread messages for participant1. Maintained only by atomic bulk updates,
+     * so entity saves never overwrite it.
+     */
+    @Column(name = "participant1_unread_count", updatable = false)
+    @JsonIgnore
+    private Long participant1UnreadCount = 0L;
+    
+    /**
+     * Unread messages for participant2. Maintained only by atomic bulk updates,
+     * so entity saves never overwrite it.
+     */
+    @Column(name = "participant2_unread_count", updatable = false)
+    @JsonIgnore
+    private Long participant2UnreadCount = 0L;
+    
     /**
      * Messages in this conversation
      */
@@ -82,6 +99,23 @@ public class Conversation {
     public LocalDateTime getLastMessageAt() { return lastMessageAt; }
     public void setLastMessageAt(LocalDateTime lastMessageAt) { this.lastMessageAt = lastMessageAt; }
     
+    public Long getParticipant1UnreadCount() { return participant1UnreadCount; }
+    public void setParticipant1UnreadCount(Long participant1UnreadCount) { this.participant1UnreadCount = participant1UnreadCount; }
+    
+    public Long getParticipant2UnreadCount() { return participant2UnreadCount; }
+    public void setParticipant2UnreadCount(Long participant2UnreadCount) { this.participant2UnreadCount = participant2UnreadCount; }
+    
+    /**
+     * Get the unread count of the given participant, or null if not yet backfilled
+     */
+    @JsonIgnore
+    public Long getUnreadCountFor(Long userId) {
+        if (participant1 != null && participant1.getId().equals(userId)) {
+            return participant1UnreadCount;
+        }
+        return participant2UnreadCount;
+    }
+    
     public List<Message> getMessages() { return messages; }
     public void setMessages(List<Message> messages) { this.messages = messages; }
 }
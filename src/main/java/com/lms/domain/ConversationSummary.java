@@ -0,0 +1,84 @@
+package com.lms.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Represents one row of a user's inbox: a conversation as seen by one of its participants.
+ * This read model carries the last-message preview and the activity time the inbox is
+ * ordered by, so the inbox is served from a single indexed query per viewer.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summary_viewer",
+                columnNames = {"viewer_id", "conversation_id"}),
+        indexes = @Index(name = "idx_conversation_summary_inbox",
+                columnList = "viewer_id, activity_at, conversation_id"))
+public class ConversationSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * The participant this inbox row belongs to
+     */
+    @Column(name = "viewer_id", nullable = false)
+    private Long viewerId;
+    
+    /**
+     * The summarized conversation
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+    
+    /**
+     * Time of the last message, or of creation for conversations without messages
+     */
+    @Column(name = "activity_at", nullable = false)
+    private LocalDateTime activityAt;
+    
+    /**
+     * Time of the last message
+     */
+    @Column
+    private LocalDateTime lastMessageAt;
+    
+    /**
+     * Snippet of the last message
+     */
+    @Column(length = 200)
+    private String lastMessagePreview;
+    
+    /**
+     * The user who sent the last message
+     */
+    @Column
+    private Long lastMessageSenderId;
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getViewerId() { return viewerId; }
+    public void setViewerId(Long viewerId) { this.viewerId = viewerId; }
+    
+    public Conversation getConversation() { return conversation; }
+    public void setConversation(Conversation conversation) { this.conversation = conversation; }
+    
+    public LocalDateTime getActivityAt() { return activityAt; }
+    public void setActivityAt(LocalDateTime activityAt) { this.activityAt = activityAt; }
+    
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public void setLastMessageAt(LocalDateTime lastMessageAt) { this.lastMessageAt = lastMessageAt; }
+    
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
+    
+    public Long getLastMessageSenderId() { return lastMessageSenderId; }
+    public void setLastMessageSenderId(Long lastMessageSenderId) { this.lastMessageSenderId = lastMessageSenderId; }
+}
@@ -0,0 +1,99 @@
+package com.lms.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Represents a message posted to a course-wide chat channel.
+ * Channel messages are written in batches, so the sender's name is stored with the
+ * message and the ID is allocated before insert.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Entity
+@Table(name = "course_channel_messages", indexes = {
+        // Covers keyset pagination of a channel's history by (sentAt, id)
+        @Index(name = "idx_course_channel_messages_course_sent_at_id", columnList = "course_id, sent_at, id")
+})
+public class CourseChannelMessage {
+    
+    @Id
+    private Long id;
+    
+    /**
+     * The course whose channel this message was posted to
+     */
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+    
+    /**
+     * The user who posted the message
+     */
+    @Column(nullable = false)
+    private Long senderId;
+    
+    /**
+     * The sender's display name at the time of posting
+     */
+    @Column
+    private String senderName;
+    
+    /**
+     * The sender's user type at the time of posting
+     */
+    @Column
+    private String senderType;
+    
+    /**
+     * The content of the message
+     */
+    @Column(nullable = false, length = 5000)
+    private String content;
+    
+    /**
+     * Optional: File attachment URL
+     */
+    @Column
+    private String attachmentUrl;
+    
+    /**
+     * Optional: File attachment name
+     */
+    @Column
+    private String attachmentName;
+    
+    /**
+     * Timestamp when the message was posted
+     */
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getCourseId() { return courseId; }
+    public void setCourseId(Long courseId) { this.courseId = courseId; }
+    
+    public Long getSenderId() { return senderId; }
+    public void setSenderId(Long senderId) { this.senderId = senderId; }
+    
+    public String getSenderName() { return senderName; }
+    public void setSenderName(String senderName) { this.senderName = senderName; }
+    
+    public String getSenderType() { return senderType; }
+    public void setSenderType(String senderType) { this.senderType = senderType; }
+    
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    
+    public String getAttachmentUrl() { return attachmentUrl; }
+    public void setAttachmentUrl(String attachmentUrl) { this.attachmentUrl = attachmentUrl; }
+    
+    public String getAttachmentName() { return attachmentName; }
+    public void setAttachmentName(String attachmentName) { this.attachmentName = attachmentName; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
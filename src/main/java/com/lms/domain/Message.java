@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
  * @version 1.0
  */
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Covers keyset pagination of a conversation's history by (sentAt, id)
+        @Index(name = "idx_messages_conversation_sent_at_id", columnList = "conversation_id, sent_at, id")
+})
 public class Message {
     
     @Id
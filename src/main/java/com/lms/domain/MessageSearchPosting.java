@@ -0,0 +1,118 @@
+package com.lms.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Represents one entry of the message search index: a term occurring in a message, filed
+ * under one participant of the message's conversation. Keying by user first partitions
+ * the index so a search only ever reads postings from the searcher's own conversations.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Entity
+@Table(name = "message_search_postings")
+@IdClass(MessageSearchPosting.Key.class)
+public class MessageSearchPosting {
+    
+    /**
+     * The participant this posting is visible to
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    /**
+     * The normalized term
+     */
+    @Id
+    @Column(name = "term", length = 64)
+    private String term;
+    
+    /**
+     * The message containing the term
+     */
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+    
+    /**
+     * The message's conversation, for conversation-scoped searches
+     */
+    @Column(nullable = false)
+    private Long conversationId;
+    
+    /**
+     * When the message was sent, for recency tie-breaking
+     */
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+    
+    /**
+     * Number of occurrences of the term in the message
+     */
+    @Column(nullable = false)
+    private Integer termFrequency;
+    
+    /**
+     * Comma-separated token positions of the term, for phrase queries
+     */
+    @Column(length = 1000)
+    private String positions;
+    
+    /**
+     * Composite primary key of a posting.
+     */
+    public static class Key implements Serializable {
+        private Long userId;
+        private String term;
+        private Long messageId;
+        
+        public Key() {
+        }
+        
+        public Key(Long userId, String term, Long messageId) {
+            this.userId = userId;
+            this.term = term;
+            this.messageId = messageId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(term, key.term)
+                    && Objects.equals(messageId, key.messageId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, term, messageId);
+        }
+    }
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+    
+    public Long getMessageId() { return messageId; }
+    public void setMessageId(Long messageId) { this.messageId = messageId; }
+    
+    public Long getConversationId() { return conversationId; }
+    public void setConversationId(Long conversationId) { this.conversationId = conversationId; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    
+    public Integer getTermFrequency() { return termFrequency; }
+    public void setTermFrequency(Integer termFrequency) { this.termFrequency = termFrequency; }
+    
+    public String getPositions() { return positions; }
+    public void setPositions(String positions) { this.positions = positions; }
+}
@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
  * @version 1.0
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, is_read, created_at"),
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at")
+})
 public class Notification {
     /**
      * Unique identifier for the notification
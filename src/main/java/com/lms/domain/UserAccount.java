@@ -185,6 +185,22 @@ public class UserAccount {
     @JsonIgnore // Don't expose roles in JSON
     private Set<String> roles;
 
+    /**
+     * Total unread messages across the user's conversations. Maintained only by atomic
+     * bulk updates, so entity saves never overwrite it.
+     */
+    @Column(name = "unread_message_count", updatable = false)
+    @JsonIgnore
+    private Long unreadMessageCount = 0L;
+
+    /**
+     * Version of the claims embedded in the user's JWTs; bumping it revokes the claims of
+     * all tokens issued before. Maintained only by atomic bulk updates.
+     */
+    @Column(name = "token_version", updatable = false)
+    @JsonIgnore
+    private Long tokenVersion = 0L;
+
     /**
      * Timestamp when the user account was created
      */
@@ -3,6 +3,7 @@ package com.lms.repository;
 import com.lms.domain.Conversation;
 import com.lms.domain.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -35,6 +36,48 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
            "ORDER BY c.lastMessageAt DESC NULLS LAST, c.createdAt DESC")
     List<Conversation> findConversationsByUser(@Param("user") UserAccount user);
     
+    /**
+     * Atomically adjust participant1's unread counter, never going below zero
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.participant1UnreadCount = " +
+           "CASE WHEN c.participant1UnreadCount + :delta < 0 THEN 0 ELSE c.participant1UnreadCount + :delta END " +
+           "WHERE c.id = :id")
+    int adjustParticipant1Unread(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * Atomically adjust participant2's unread counter, never going below zero
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.participant2UnreadCount = " +
+           "CASE WHEN c.participant2UnreadCount + :delta < 0 THEN 0 ELSE c.participant2UnreadCount + :delta END " +
+           "WHERE c.id = :id")
+    int adjustParticipant2Unread(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * Read the current unread counters of a conversation as [participant1, participant2]
+     */
+    @Query("SELECT c.participant1UnreadCount, c.participant2UnreadCount FROM Conversation c WHERE c.id = :id")
+    List<Object[]> findUnreadCounts(@Param("id") Long id);
+    
+    /**
+     * Backfill participant1 unread counters that predate counter maintenance
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.participant1UnreadCount = " +
+           "(SELECT COUNT(m) FROM Message m WHERE m.conversation = c AND m.sender <> c.participant1 AND m.isRead = false) " +
+           "WHERE c.participant1UnreadCount IS NULL")
+    int backfillParticipant1Unread();
+    
+    /**
+     * Backfill participant2 unread counters that predate counter maintenance
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.participant2UnreadCount = " +
+           "(SELECT COUNT(m) FROM Message m WHERE m.conversation = c AND m.sender <> c.participant2 AND m.isRead = false) " +
+           "WHERE c.participant2UnreadCount IS NULL")
+    int backfillParticipant2Unread();
+    
     /**
      * Find conversations for a user related to a specific course
      */
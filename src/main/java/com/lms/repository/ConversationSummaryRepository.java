@@ -0,0 +1,98 @@
+package com.lms.repository;
+
+import com.lms.domain.ConversationSummary;
+import com.lms.service.ConversationSummaryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for ConversationSummary entities.
+ * Provides the inbox read model queries and its maintenance updates.
+ */
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    String INBOX_SELECT = "SELECT new com.lms.service.ConversationSummaryView(" +
+            "c.id, c.createdAt, s.activityAt, s.lastMessageAt, s.lastMessagePreview, s.lastMessageSenderId, " +
+            "p1.id, p1.name, p1.email, p1.userType, p2.id, p2.name, p2.email, p2.userType, " +
+            "c.participant1UnreadCount, c.participant2UnreadCount, co.id, co.title) " +
+            "FROM ConversationSummary s JOIN s.conversation c " +
+            "JOIN c.participant1 p1 JOIN c.participant2 p2 LEFT JOIN c.course co " +
+            "WHERE s.viewerId = :viewerId ";
+
+    /**
+     * Find the newest inbox rows of a viewer
+     */
+    @Query(INBOX_SELECT + "ORDER BY s.activityAt DESC, s.conversation.id DESC")
+    List<ConversationSummaryView> findInbox(@Param("viewerId") Long viewerId, Pageable pageable);
+
+    /**
+     * Find inbox rows of a viewer older than the (activityAt, conversationId) cursor
+     */
+    @Query(INBOX_SELECT + "AND (s.activityAt < :activityAt OR (s.activityAt = :activityAt AND s.conversation.id < :conversationId)) " +
+           "ORDER BY s.activityAt DESC, s.conversation.id DESC")
+    List<ConversationSummaryView> findInboxBefore(@Param("viewerId") Long viewerId,
+                                                  @Param("activityAt") LocalDateTime activityAt,
+                                                  @Param("conversationId") Long conversationId,
+                                                  Pageable pageable);
+
+    /**
+     * Whether a conversation already has its summary rows
+     */
+    boolean existsByConversationId(Long conversationId);
+
+    /**
+     * Record a new last message on both rows of a conversation, ignoring older messages
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.activityAt = :sentAt, s.lastMessageAt = :sentAt, " +
+           "s.lastMessagePreview = :preview, s.lastMessageSenderId = :senderId " +
+           "WHERE s.conversation.id = :conversationId AND (s.lastMessageAt IS NULL OR s.lastMessageAt <= :sentAt)")
+    int updateLastMessage(@Param("conversationId") Long conversationId,
+                          @Param("senderId") Long senderId,
+                          @Param("preview") String preview,
+                          @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Backfill summary rows for participant1 of conversations that predate the read model
+     */
+    @Modifying
+    @Query("INSERT INTO ConversationSummary (viewerId, conversation, activityAt, lastMessageAt) " +
+           "SELECT c.participant1.id, c, COALESCE(c.lastMessageAt, c.createdAt), c.lastMessageAt FROM Conversation c " +
+           "WHERE NOT EXISTS (SELECT 1 FROM ConversationSummary s WHERE s.conversation = c AND s.viewerId = c.participant1.id)")
+    int backfillParticipant1();
+
+    /**
+     * Backfill summary rows for participant2 of conversations that predate the read model
+     */
+    @Modifying
+    @Query("INSERT INTO ConversationSummary (viewerId, conversation, activityAt, lastMessageAt) " +
+           "SELECT c.participant2.id, c, COALESCE(c.lastMessageAt, c.createdAt), c.lastMessageAt FROM Conversation c " +
+           "WHERE NOT EXISTS (SELECT 1 FROM ConversationSummary s WHERE s.conversation = c AND s.viewerId = c.participant2.id)")
+    int backfillParticipant2();
+
+    /**
+     * Backfill the last sender and preview of a conversation's rows that have none yet
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.lastMessagePreview = :preview, s.lastMessageSenderId = :senderId " +
+           "WHERE s.conversation.id = :conversationId AND s.lastMessageSenderId IS NULL")
+    int backfillLastMessage(@Param("conversationId") Long conversationId,
+                            @Param("senderId") Long senderId,
+                            @Param("preview") String preview);
+
+    /**
+     * Find the latest message of each conversation whose summary lacks a preview, as [conversationId, messageId]
+     */
+    @Query("SELECT m.conversation.id, MAX(m.id) FROM Message m WHERE m.conversation.id IN " +
+           "(SELECT s.conversation.id FROM ConversationSummary s WHERE s.lastMessageSenderId IS NULL AND s.lastMessageAt IS NOT NULL) " +
+           "GROUP BY m.conversation.id")
+    List<Object[]> findLatestMessagesMissingPreview();
+}
@@ -0,0 +1,36 @@
+package com.lms.repository;
+
+import com.lms.domain.CourseChannelMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for CourseChannelMessage entities.
+ * Provides keyset-paginated access to a course channel's history.
+ */
+@Repository
+public interface CourseChannelMessageRepository extends JpaRepository<CourseChannelMessage, Long> {
+
+    /**
+     * Find the newest messages of a course channel, newest first
+     */
+    @Query("SELECT m FROM CourseChannelMessage m WHERE m.courseId = :courseId ORDER BY m.sentAt DESC, m.id DESC")
+    List<CourseChannelMessage> findLatest(@Param("courseId") Long courseId, Pageable pageable);
+
+    /**
+     * Find messages of a course channel older than the (sentAt, id) cursor, newest first
+     */
+    @Query("SELECT m FROM CourseChannelMessage m WHERE m.courseId = :courseId " +
+           "AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) " +
+           "ORDER BY m.sentAt DESC, m.id DESC")
+    List<CourseChannelMessage> findBefore(@Param("courseId") Long courseId,
+                                          @Param("sentAt") LocalDateTime sentAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+}
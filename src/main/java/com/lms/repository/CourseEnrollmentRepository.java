@@ -4,6 +4,8 @@ import com.lms.domain.CourseEnrollment;
 import com.lms.domain.UserAccount;
 import com.lms.domain.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -52,5 +54,22 @@ public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollme
      * @return true if enrollment exists, false otherwise
      */
     boolean existsByStudentAndCourse(UserAccount student, Course course);
-}
 
+    /**
+     * Checks if an enrollment exists for a student and course by their IDs, without loading either.
+     *
+     * @param studentId the student user ID
+     * @param courseId the course ID
+     * @return true if enrollment exists, false otherwise
+     */
+    boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
+
+    /**
+     * Finds the IDs of all students enrolled in a course, without loading enrollments or users.
+     *
+     * @param courseId the course ID
+     * @return the list of student user IDs
+     */
+    @Query("SELECT e.student.id FROM CourseEnrollment e WHERE e.course.id = :courseId")
+    List<Long> findStudentIdsByCourseId(@Param("courseId") Long courseId);
+}
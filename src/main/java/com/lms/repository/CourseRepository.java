@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Handles data access operations for Course entities. This repository provides
@@ -84,5 +85,21 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
      */
     @Query("SELECT c FROM Course c WHERE c.status = 'PUBLISHED' AND c.featured = true ORDER BY c.publishedAt DESC")
     List<Course> findFeaturedPublishedCourses();
-}
 
+    /**
+     * Counts featured published courses without loading them
+     *
+     * @return number of featured published courses
+     */
+    @Query("SELECT COUNT(c) FROM Course c WHERE c.status = 'PUBLISHED' AND c.featured = true")
+    long countFeaturedPublishedCourses();
+
+    /**
+     * Finds the instructor ID of a course without loading the course.
+     *
+     * @param courseId the course ID
+     * @return the Optional containing the instructor ID if the course exists
+     */
+    @Query("SELECT c.instructor.id FROM Course c WHERE c.id = :courseId")
+    Optional<Long> findInstructorIdById(@Param("courseId") Long courseId);
+}
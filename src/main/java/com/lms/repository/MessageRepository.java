@@ -2,13 +2,16 @@ package com.lms.repository;
 
 import com.lms.domain.Message;
 import com.lms.domain.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Message entities.
@@ -21,6 +24,42 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      * Find all messages in a conversation, ordered by sent time
      */
     List<Message> findByConversationOrderBySentAtAsc(Conversation conversation);
+
+    /**
+     * Find the newest messages in a conversation, newest first, with their senders
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLatestInConversation(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    /**
+     * Find messages older than the (sentAt, id) cursor, newest first, with their senders
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) " +
+           "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findInConversationBefore(@Param("conversationId") Long conversationId,
+                                           @Param("sentAt") LocalDateTime sentAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    /**
+     * Find messages newer than the (sentAt, id) cursor, oldest first, with their senders
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND (m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id)) " +
+           "ORDER BY m.sentAt ASC, m.id ASC")
+    List<Message> findInConversationAfter(@Param("conversationId") Long conversationId,
+                                          @Param("sentAt") LocalDateTime sentAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    /**
+     * Resolve the sent time of a cursor message within a conversation
+     */
+    @Query("SELECT m.sentAt FROM Message m WHERE m.id = :id AND m.conversation.id = :conversationId")
+    Optional<LocalDateTime> findSentAtInConversation(@Param("conversationId") Long conversationId,
+                                                     @Param("id") Long id);
     
     /**
      * Count unread messages in a conversation for a specific user (messages not sent by them)
@@ -31,12 +70,20 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
                              @Param("user") com.lms.domain.UserAccount user);
     
     /**
-     * Mark messages as read in a conversation for a specific user
+     * Count unread messages across all of a user's conversations in a single query
+     */
+    @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c " +
+           "WHERE (c.participant1.id = :userId OR c.participant2.id = :userId) " +
+           "AND m.sender.id <> :userId AND m.isRead = false")
+    long countUnreadMessagesForUser(@Param("userId") Long userId);
+    
+    /**
+     * Mark messages as read in a conversation for a specific user; returns the number marked
      */
     @Modifying
     @Query("UPDATE Message m SET m.isRead = true, m.readAt = CURRENT_TIMESTAMP " +
            "WHERE m.conversation = :conversation AND m.sender != :user AND m.isRead = false")
-    void markMessagesAsRead(@Param("conversation") Conversation conversation,
+    int markMessagesAsRead(@Param("conversation") Conversation conversation,
                            @Param("user") com.lms.domain.UserAccount user);
     
     /**
@@ -2,9 +2,15 @@ package com.lms.repository;
 
 import com.lms.domain.Notification;
 import com.lms.domain.UserAccount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,7 +18,75 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserOrderByCreatedAtDesc(UserAccount user);
     List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(UserAccount user);
     Long countByUserAndIsReadFalse(UserAccount user);
-}
 
+    /**
+     * Count a user's unread notifications without loading the user
+     */
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
+    /**
+     * Find the newest notifications of a user, optionally unread only
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (:unreadOnly = false OR n.isRead = false) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPage(@Param("userId") Long userId,
+                                @Param("unreadOnly") boolean unreadOnly,
+                                Pageable pageable);
+
+    /**
+     * Find notifications of a user older than the (createdAt, id) cursor, optionally unread only
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (:unreadOnly = false OR n.isRead = false) " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("userId") Long userId,
+                                      @Param("unreadOnly") boolean unreadOnly,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    /**
+     * Mark one of a user's notifications read if it is still unread
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+           "WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
 
+    /**
+     * Mark a user's unread notifications read in one statement, optionally only those of
+     * one type and/or created before a timestamp
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+           "WHERE n.user.id = :userId AND n.isRead = false " +
+           "AND (:type IS NULL OR n.type = :type) " +
+           "AND (:before IS NULL OR n.createdAt < :before)")
+    int markAllRead(@Param("userId") Long userId,
+                    @Param("type") Notification.NotificationType type,
+                    @Param("before") LocalDateTime before,
+                    @Param("readAt") LocalDateTime readAt);
 
+    /**
+     * Delete all of a user's read notifications in one statement
+     */
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId AND n.isRead = true")
+    int deleteAllRead(@Param("userId") Long userId);
+
+    /**
+     * Find read notifications created before a cutoff, oldest first, for retention
+     */
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdAt < :cutoff ORDER BY n.createdAt")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Delete notifications by ID in one statement
+     */
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -2,6 +2,9 @@ package com.lms.repository;
 
 import com.lms.domain.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -40,7 +43,68 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Long>
      * @return the list of user accounts in the organization
      */
     List<UserAccount> findByOrganizationId(Long organizationId);
-}
 
+    /**
+     * Finds the IDs of an organization's users of one type, without loading the accounts.
+     *
+     * @param organizationId the organization ID
+     * @param userType the user type
+     * @return the list of user IDs
+     */
+    @Query("SELECT u.id FROM UserAccount u WHERE u.organization.id = :organizationId AND u.userType = :userType")
+    List<Long> findIdsByOrganizationIdAndUserType(@Param("organizationId") Long organizationId,
+                                                  @Param("userType") UserAccount.UserType userType);
+
+    /**
+     * Atomically adjusts a user's total unread message counter, never going below zero.
+     *
+     * @param userId the user ID
+     * @param delta the amount to add (negative to subtract)
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.unreadMessageCount = " +
+           "CASE WHEN u.unreadMessageCount + :delta < 0 THEN 0 ELSE u.unreadMessageCount + :delta END " +
+           "WHERE u.id = :userId")
+    int adjustUnreadMessageCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * Reads a user's total unread message counter.
+     *
+     * @param userId the user ID
+     * @return the Optional containing the counter, empty if the user is unknown or not yet backfilled
+     */
+    @Query("SELECT u.unreadMessageCount FROM UserAccount u WHERE u.id = :userId")
+    Optional<Long> findUnreadMessageCount(@Param("userId") Long userId);
+
+    /**
+     * Backfills total unread counters that predate counter maintenance.
+     *
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.unreadMessageCount = " +
+           "(SELECT COUNT(m) FROM Message m JOIN m.conversation c " +
+           "WHERE (c.participant1 = u OR c.participant2 = u) AND m.sender <> u AND m.isRead = false) " +
+           "WHERE u.unreadMessageCount IS NULL")
+    int backfillUnreadMessageCounts();
 
+    /**
+     * Reads the token version of a user.
+     *
+     * @param email the user email
+     * @return the Optional containing the version (0 if never set), empty if the user is unknown
+     */
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM UserAccount u WHERE u.email = :email")
+    Optional<Long> findTokenVersionByEmail(@Param("email") String email);
 
+    /**
+     * Atomically increments a user's token version, revoking the claims of issued tokens.
+     *
+     * @param email the user email
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.tokenVersion = COALESCE(u.tokenVersion, 0) + 1 WHERE u.email = :email")
+    int incrementTokenVersion(@Param("email") String email);
+}
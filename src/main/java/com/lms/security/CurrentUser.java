@@ -0,0 +1,22 @@
+package com.lms.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method parameter that receives the authenticated user. Supported
+ * parameter types are {@link com.lms.domain.UserAccount}, loaded at most once per request,
+ * and {@link JwtUser}, taken from the token claims without any lookup. The parameter is
+ * null for unauthenticated requests.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,109 @@
+package com.lms.security;
+
+import com.lms.domain.UserAccount;
+import com.lms.repository.UserAccountRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Handles access to the authenticated user for the web and service layers. The
+ * {@link UserAccount} is loaded at most once per HTTP request and memoized as a request
+ * attribute, so controllers and the services they call share a single identity lookup.
+ * Outside of a request (scheduled jobs, WebSocket handlers) nothing is memoized and
+ * lookups go straight to the repository.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component
+public class CurrentUserContext {
+
+    private static final String USER_ACCOUNT_ATTRIBUTE = CurrentUserContext.class.getName() + ".userAccount";
+
+    private final UserAccountRepository userAccountRepository;
+
+    public CurrentUserContext(UserAccountRepository userAccountRepository) {
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    /**
+     * Returns the authenticated principal of the current thread.
+     *
+     * @return the principal, or null if unauthenticated
+     */
+    public JwtUser getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUser jwtUser) {
+            return jwtUser;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the account of the authenticated user, loading it once per request.
+     *
+     * @return the user account, or empty if unauthenticated
+     */
+    public Optional<UserAccount> getUserAccount() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object memo = attributes.getAttribute(USER_ACCOUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (memo instanceof UserAccount user) {
+                return Optional.of(user);
+            }
+        }
+
+        Optional<UserAccount> user = loadAuthenticatedUser();
+        if (attributes != null) {
+            user.ifPresent(u -> attributes.setAttribute(USER_ACCOUNT_ATTRIBUTE, u, RequestAttributes.SCOPE_REQUEST));
+        }
+        return user;
+    }
+
+    /**
+     * Returns the account of the authenticated user.
+     *
+     * @return the user account
+     * @throws RuntimeException if the request is unauthenticated or the account is gone
+     */
+    public UserAccount requireUserAccount() {
+        return getUserAccount().orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Finds a user by ID, reusing the memoized account when it is the current user.
+     * Services call this instead of {@code userAccountRepository.findById} for IDs that
+     * usually belong to the caller.
+     *
+     * @param userId the user ID
+     * @return the user account, or empty if not found
+     */
+    public Optional<UserAccount> findUser(Long userId) {
+        JwtUser principal = getPrincipal();
+        if (principal != null && Objects.equals(principal.getId(), userId)) {
+            return getUserAccount();
+        }
+        return userAccountRepository.findById(userId);
+    }
+
+    private Optional<UserAccount> loadAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof JwtUser jwtUser && jwtUser.getId() != null) {
+            return userAccountRepository.findById(jwtUser.getId());
+        }
+        if (authentication.getPrincipal() instanceof UserDetails details) {
+            return userAccountRepository.findByEmail(details.getUsername());
+        }
+        return Optional.empty();
+    }
+}
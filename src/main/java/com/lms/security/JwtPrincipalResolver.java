@@ -0,0 +1,61 @@
+package com.lms.security;
+
+import com.lms.domain.UserAccount;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Handles resolving a bearer token into an authenticated principal. Tokens carrying
+ * current identity claims are turned into a {@link JwtUser} without any lookup; legacy
+ * tokens and tokens whose version has been revoked fall back to the principal cache,
+ * which reloads the account.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    private final JwtService jwtService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final PrincipalCache principalCache;
+
+    public JwtPrincipalResolver(JwtService jwtService,
+                                TokenVersionRegistry tokenVersionRegistry,
+                                PrincipalCache principalCache) {
+        this.jwtService = jwtService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Verifies a token and resolves its principal.
+     *
+     * @param token the JWT token string
+     * @return the principal, or null if the token has no subject
+     */
+    public JwtUser resolve(String token) {
+        Claims claims = jwtService.parseClaims(token);
+        String subject = claims.getSubject();
+        if (subject == null) {
+            return null;
+        }
+        Number userId = claims.get(JwtService.CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(JwtService.CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || tokenVersion == null
+                || !tokenVersionRegistry.isCurrent(subject, tokenVersion.longValue())) {
+            return principalCache.load(subject);
+        }
+
+        String userType = claims.get(JwtService.CLAIM_USER_TYPE, String.class);
+        Number organizationId = claims.get(JwtService.CLAIM_ORGANIZATION_ID, Number.class);
+        List<?> roles = claims.get(JwtService.CLAIM_ROLES, List.class);
+        return new JwtUser(subject,
+                userId.longValue(),
+                userType != null ? UserAccount.UserType.valueOf(userType) : null,
+                organizationId != null ? organizationId.longValue() : null,
+                JwtUser.toAuthorities(roles));
+    }
+}
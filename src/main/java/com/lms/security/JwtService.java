@@ -1,23 +1,46 @@
 package com.lms.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.lms.domain.UserAccount;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles JWT token generation and validation. This service manages JWT token
  * creation, signature verification, subject extraction, and token expiration
- * for authentication and authorization in the LMS platform.
+ * for authentication and authorization in the LMS platform. Tokens issued for a
+ * user account carry its ID, type, organization, roles and token version as signed
+ * claims, so requests can be authenticated without loading the account. Verified
+ * tokens are remembered by digest until they expire, so a client presenting the same
+ * token on every request pays for parsing and signature verification only once.
  *
  * @author VisionWaves
  * @version 1.0
  */
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_USER_TYPE = "utype";
+    public static final String CLAIM_ORGANIZATION_ID = "org";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
     /**
      * Secret key for JWT signing
      */
@@ -28,6 +51,16 @@ public class JwtService {
      */
     private final long expirationMs;
 
+    /**
+     * Prebuilt parser; JwtParser is immutable and thread-safe
+     */
+    private final JwtParser parser;
+
+    /**
+     * Claims of recently verified tokens, keyed by token digest, each expiring with its token
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
     /**
      * Constructs a JWT service with the provided secret and expiration.
      *
@@ -35,8 +68,39 @@ public class JwtService {
      * @param expirationMs the token expiration time in milliseconds
      */
     public JwtService(String base64Secret, long expirationMs) {
+        this(base64Secret, expirationMs, 10_000);
+    }
+
+    /**
+     * Constructs a JWT service with the provided secret, expiration and verified-token cache size.
+     *
+     * @param base64Secret the base64-encoded secret key
+     * @param expirationMs the token expiration time in milliseconds
+     * @param verifiedCacheSize the maximum number of verified tokens to remember
+     */
+    public JwtService(String base64Secret, long expirationMs, long verifiedCacheSize) {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -56,6 +120,49 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Generates a JWT token for the given user account, embedding its identity and
+     * authorization data as signed claims.
+     *
+     * @param user the user account
+     * @param tokenVersion the current token version of the user
+     * @return the generated JWT token string
+     */
+    public String generateToken(UserAccount user, long tokenVersion) {
+        Date now = new Date();
+        Date exp = new Date(now.getTime() + expirationMs);
+        List<String> roles = user.getRoles() == null ? List.of() : new ArrayList<>(user.getRoles());
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_USER_TYPE, user.getUserType() != null ? user.getUserType().name() : null)
+                .claim(CLAIM_ORGANIZATION_ID, user.getOrganization() != null ? user.getOrganization().getId() : null)
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, tokenVersion)
+                .setIssuedAt(now)
+                .setExpiration(exp)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verifies a JWT token and returns its claims.
+     *
+     * @param token the JWT token string
+     * @return the verified claims
+     */
+    public Claims parseClaims(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        // Invalid or expired tokens throw here and are never cached
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
     /**
      * Extracts the subject from a JWT token.
      *
@@ -63,12 +170,33 @@ public class JwtService {
      * @return the subject extracted from the token
      */
     public String extractSubject(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    /**
+     * Returns the token lifetime.
+     *
+     * @return the token expiration time in milliseconds
+     */
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    private static long remainingNanos(Claims claims) {
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            return 0L;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, exp.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
 
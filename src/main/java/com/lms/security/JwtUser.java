@@ -0,0 +1,103 @@
+package com.lms.security;
+
+import com.lms.domain.UserAccount;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal built from JWT claims. It extends Spring Security's
+ * {@link User}, so existing {@code @AuthenticationPrincipal User} parameters keep
+ * working, and additionally carries the user ID, type and organization so
+ * controllers do not have to look the account up by email.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public class JwtUser extends User {
+
+    /**
+     * The user account ID
+     */
+    private final Long id;
+
+    /**
+     * The user type, or null if unknown
+     */
+    private final UserAccount.UserType userType;
+
+    /**
+     * The organization ID, or null if the user has no organization
+     */
+    private final Long organizationId;
+
+    /**
+     * Constructs a principal without credentials.
+     *
+     * @param email the user email (token subject)
+     * @param id the user account ID
+     * @param userType the user type
+     * @param organizationId the organization ID
+     * @param authorities the granted authorities
+     */
+    public JwtUser(String email, Long id, UserAccount.UserType userType, Long organizationId,
+                   Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", authorities);
+        this.id = id;
+        this.userType = userType;
+        this.organizationId = organizationId;
+    }
+
+    /**
+     * Builds a principal from a user account.
+     *
+     * @param user the user account
+     * @return the principal
+     */
+    public static JwtUser from(UserAccount user) {
+        return new JwtUser(user.getEmail(), user.getId(), user.getUserType(),
+                user.getOrganization() != null ? user.getOrganization().getId() : null,
+                toAuthorities(user.getRoles()));
+    }
+
+    /**
+     * Maps stored role names to authorities, adding the ROLE_ prefix where missing.
+     *
+     * @param roles the stored role names
+     * @return the granted authorities
+     */
+    public static List<GrantedAuthority> toAuthorities(Collection<?> roles) {
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .map(Object::toString)
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UserAccount.UserType getUserType() {
+        return userType;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    /**
+     * Whether this principal is a system administrator.
+     *
+     * @return true if the user type is ADMIN
+     */
+    public boolean isAdmin() {
+        return userType == UserAccount.UserType.ADMIN;
+    }
+}
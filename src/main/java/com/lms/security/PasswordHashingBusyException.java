@@ -0,0 +1,15 @@
+package com.lms.security;
+
+/**
+ * Thrown when the password hashing pool is saturated and cannot accept more work.
+ * Mapped to 503 Service Unavailable with a Retry-After header.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
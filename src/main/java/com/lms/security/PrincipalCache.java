@@ -0,0 +1,100 @@
+package com.lms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lms.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Handles the per-node cache of authenticated principals used by the JWT filter and the
+ * WebSocket interceptor for tokens whose embedded claims cannot be trusted (legacy tokens
+ * or tokens issued before a revocation). Entries hold no password hash, expire after a
+ * short TTL and are invalidated explicitly whenever a user's roles, approval or password
+ * change; invalidation also revokes the claims of the user's outstanding tokens. Entries
+ * remember the token version they were loaded under, so a revocation made on another node
+ * also forces a reload here.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final UserAccountRepository userAccountRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final Cache<String, CachedPrincipal> principals;
+
+    /**
+     * A principal and the token version current when it was loaded
+     */
+    private record CachedPrincipal(JwtUser principal, long tokenVersion) {
+    }
+
+    public PrincipalCache(UserAccountRepository userAccountRepository,
+                          TokenVersionRegistry tokenVersionRegistry,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.principal-cache.ttl:PT5M}") Duration ttl,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize) {
+        this.userAccountRepository = userAccountRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principalCache");
+        Gauge.builder("security.principal.cache.hit.ratio", principals, cache -> cache.stats().hitRate())
+                .description("Hit ratio of the authenticated principal cache on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the principal for the given username, loading it on a miss.
+     *
+     * @param username the token subject (user email)
+     * @return the principal without credentials
+     */
+    public JwtUser load(String username) {
+        long tokenVersion = tokenVersionRegistry.currentVersion(username);
+        CachedPrincipal cached = principals.getIfPresent(username);
+        if (tokenVersion == TokenVersionRegistry.UNKNOWN_ACCOUNT) {
+            // The account is gone; drop any principal cached before it was deleted
+            principals.invalidate(username);
+        } else if (cached != null && cached.tokenVersion() == tokenVersion) {
+            return cached.principal();
+        }
+        JwtUser principal = loadWithoutCredentials(username);
+        principals.put(username, new CachedPrincipal(principal, tokenVersion));
+        return principal;
+    }
+
+    /**
+     * Drops the cached principal and revokes the claims of the user's issued tokens,
+     * so the next request reloads roles and status.
+     *
+     * @param username the user email
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            tokenVersionRegistry.revoke(username);
+            principals.invalidate(username);
+            log.debug("Invalidated cached principal for {}", username);
+        }
+    }
+
+    private JwtUser loadWithoutCredentials(String username) {
+        // Token authentication never needs the hash, so keep it out of memory
+        return userAccountRepository.findByEmail(username)
+                .map(JwtUser::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+}
@@ -9,8 +9,9 @@ public class SecurityBeans {
 
     @Bean
     JwtService jwtService(@Value("${security.jwt.secret}") String secret,
-                          @Value("${security.jwt.expiration-ms:86400000}") long expMs) {
-        return new JwtService(secret, expMs);
+                          @Value("${security.jwt.expiration-ms:86400000}") long expMs,
+                          @Value("${security.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        return new JwtService(secret, expMs, verifiedCacheSize);
     }
 }
 
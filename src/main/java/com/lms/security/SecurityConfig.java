@@ -1,6 +1,7 @@
 package com.lms.security;
 
 import com.lms.repository.UserAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +13,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -42,8 +44,29 @@ public class SecurityConfig {
     private String allowedOriginsConfig;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password.bcrypt-strength:10}") int strength,
+            @Value("${app.security.password.hashing-threads:0}") int threads,
+            @Value("${app.security.password.queue-capacity:64}") int queueCapacity) {
+        // Bounded pool sized to the cores by default, so hashing cannot take over the servlet workers
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingService(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Stores a rehashed password after a successful login whose stored hash used an
+     * older cost factor, so the BCrypt strength can be raised without a migration.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(UserAccountRepository users) {
+        return (user, newPassword) -> {
+            users.findByEmail(user.getUsername()).ifPresent(account -> {
+                account.setPasswordHash(newPassword);
+                users.save(account);
+            });
+            return User.withUserDetails(user).password(newPassword).build();
+        };
     }
 
     @Bean
@@ -64,10 +87,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(UserDetailsService uds, PasswordEncoder encoder) {
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService uds, PasswordEncoder encoder,
+                                                            UserDetailsPasswordService passwordService) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(uds);
         provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
         return provider;
     }
 
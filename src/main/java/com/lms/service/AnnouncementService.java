@@ -2,7 +2,6 @@ package com.lms.service;
 
 import com.lms.domain.Course;
 import com.lms.domain.CourseAnnouncement;
-import com.lms.domain.CourseEnrollment;
 import com.lms.domain.Notification;
 import com.lms.domain.UserAccount;
 import com.lms.repository.CourseAnnouncementRepository;
@@ -24,9 +23,6 @@ public class AnnouncementService {
     @Autowired
     private CourseAnnouncementRepository announcementRepository;
 
-    @Autowired(required = false)
-    private EmailNotificationService emailNotificationService;
-
     @Autowired
     private CourseEnrollmentRepository enrollmentRepository;
 
@@ -39,6 +35,9 @@ public class AnnouncementService {
     @Autowired(required = false)
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationDigestService notificationDigestService;
+
     @Transactional(readOnly = true)
     public List<CourseAnnouncement> getAnnouncementsByCourse(Long courseId) {
         try {
@@ -103,19 +102,32 @@ public class AnnouncementService {
         
         CourseAnnouncement saved = announcementRepository.save(announcement);
         
-        // Send email notifications to all enrolled students
+        // Email all enrolled students; several announcements in a row are coalesced into one digest email
         try {
-            if (emailNotificationService != null) {
-                List<CourseEnrollment> enrollments = enrollmentRepository.findByCourse(course);
-                for (CourseEnrollment enrollment : enrollments) {
-                    emailNotificationService.sendCourseAnnouncementEmail(
-                        enrollment.getStudent().getId(),
+            String content = saved.getContent() != null && saved.getContent().length() > 500
+                    ? saved.getContent().substring(0, 500) + "..." : saved.getContent();
+            notificationDigestService.publish(
+                enrollmentRepository.findStudentIdsByCourseId(courseId),
+                new NotificationDigestService.DigestEvent(
+                    "announcement:course:" + courseId,
+                    "New announcements for course '" + course.getTitle() + "'",
+                    Notification.NotificationType.ANNOUNCEMENT,
+                    saved.getTitle(),
+                    null,
+                    "/ui/lms/courses/" + courseId,
+                    "New Announcement: " + course.getTitle(),
+                    String.format(
+                        "A new announcement has been posted for the course '%s':\n\n" +
+                        "Title: %s\n\n" +
+                        "%s\n\n" +
+                        "You can view this announcement in your course dashboard.",
                         course.getTitle(),
                         saved.getTitle(),
-                        saved.getContent()
-                    );
-                }
-            }
+                        content
+                    ),
+                    false
+                )
+            );
         } catch (Exception e) {
             log.error("Failed to send announcement emails for course {} and announcement {}: {}",
                     courseId, saved.getId(), e.getMessage(), e);
@@ -137,24 +149,28 @@ public class AnnouncementService {
 
         try {
             // Get all teachers in the organization
-            List<UserAccount> teachers = userAccountRepository.findByOrganizationId(course.getOrganization().getId());
-            
-            for (UserAccount teacher : teachers) {
-                if (teacher.getUserType() == UserAccount.UserType.TEACHER) {
-                    String message = String.format(
-                        "A new announcement '%s' has been posted for course '%s'.",
-                        announcement.getTitle(),
-                        course.getTitle()
-                    );
-                    notificationService.createNotification(
-                        teacher.getId(),
-                        "New Course Announcement",
-                        message,
-                        Notification.NotificationType.ANNOUNCEMENT,
-                        "/ui/lms/courses/" + course.getId()
-                    );
-                }
-            }
+            List<Long> teacherIds = userAccountRepository.findIdsByOrganizationIdAndUserType(
+                    course.getOrganization().getId(), UserAccount.UserType.TEACHER);
+
+            String message = String.format(
+                "A new announcement '%s' has been posted for course '%s'.",
+                announcement.getTitle(),
+                course.getTitle()
+            );
+            notificationDigestService.publish(
+                teacherIds,
+                new NotificationDigestService.DigestEvent(
+                    "announcement:course:" + course.getId(),
+                    "New announcements for course '" + course.getTitle() + "'",
+                    Notification.NotificationType.ANNOUNCEMENT,
+                    "New Course Announcement",
+                    message,
+                    "/ui/lms/courses/" + course.getId(),
+                    null,
+                    null,
+                    true
+                )
+            );
         } catch (Exception e) {
             log.error("Failed to notify teachers about announcement {} for course {}: {}",
                     announcement.getId(), course.getId(), e.getMessage(), e);
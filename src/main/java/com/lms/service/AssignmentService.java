@@ -48,6 +48,9 @@ public class AssignmentService {
     @Autowired
     private CourseEnrollmentRepository enrollmentRepository;
 
+    @Autowired
+    private NotificationDigestService notificationDigestService;
+
     /**
      * Retrieves all assignments for a specific course.
      *
@@ -119,19 +122,33 @@ public class AssignmentService {
             log.error("Assignment was not found after saving! ID: {}", saved.getId());
         }
         
-        // Send deadline reminder emails to enrolled students (if due date is in future)
+        // Send deadline reminder emails to enrolled students (if due date is in future);
+        // several assignments posted in a row are coalesced into one digest email
         try {
-            if (emailNotificationService != null && saved.getDueDate() != null && 
-                saved.getDueDate().isAfter(LocalDateTime.now())) {
-                List<CourseEnrollment> enrollments = enrollmentRepository.findByCourse(course);
-                for (CourseEnrollment enrollment : enrollments) {
-                    emailNotificationService.sendAssignmentDeadlineReminderEmail(
-                        enrollment.getStudent().getId(),
-                        course.getTitle(),
+            if (saved.getDueDate() != null && saved.getDueDate().isAfter(LocalDateTime.now())) {
+                notificationDigestService.publish(
+                    enrollmentRepository.findStudentIdsByCourseId(courseId),
+                    new NotificationDigestService.DigestEvent(
+                        "assignment:course:" + courseId,
+                        "New assignments for course '" + course.getTitle() + "'",
+                        Notification.NotificationType.ASSIGNMENT,
                         saved.getTitle(),
-                        saved.getDueDate()
-                    );
-                }
+                        null,
+                        "/ui/lms/courses/" + courseId,
+                        "Assignment Deadline Reminder: " + saved.getTitle(),
+                        String.format(
+                            "This is a reminder that you have an assignment deadline approaching:\n\n" +
+                            "Course: %s\n" +
+                            "Assignment: %s\n" +
+                            "Due Date: %s\n\n" +
+                            "Please make sure to submit your assignment before the deadline.",
+                            course.getTitle(),
+                            saved.getTitle(),
+                            saved.getDueDate().toString()
+                        ),
+                        false
+                    )
+                );
             }
         } catch (Exception e) {
             log.error("Failed to send assignment deadline reminder emails for course {} and assignment {}: {}",
@@ -0,0 +1,13 @@
+package com.lms.service;
+
+/**
+ * Published after a committed change to the public course catalog.
+ *
+ * @param version the catalog version after the change
+ * @param courseId the ID of the course that changed, or null for bulk changes
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public record CatalogChangedEvent(long version, Long courseId) {
+}
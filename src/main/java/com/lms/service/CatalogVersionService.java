@@ -0,0 +1,191 @@
+package com.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handles the version counter of the public course catalog. Every course or lecture
+ * mutation bumps the version, and anything derived from the catalog (pre-serialized
+ * responses, ETags) is keyed by it so stale copies are never served. Each bump is
+ * announced as a {@link CatalogChangedEvent} so caches can be re-warmed.
+ * <p>
+ * With {@code app.catalog.version.redis.enabled=true} the version lives in Redis: bumps
+ * increment it there and are broadcast on {@link #VERSION_CHANNEL}, so every node serves
+ * the same version and ETag and drops stale cached responses as soon as any node changes
+ * the catalog. A periodic sync catches up on broadcasts a node missed. A bump that cannot
+ * reach Redis only advances this node's local epoch, which invalidates its own cached
+ * responses and ETags without pushing its version ahead of the shared one.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class CatalogVersionService {
+
+    public static final String VERSION_CHANNEL = "lms:catalog:version:changed";
+
+    private static final String VERSION_KEY = "lms:catalog:version";
+
+    /**
+     * Increments the shared version, re-seeding a lost key from the caller's floor (the clock
+     * or the node's version, whichever is higher) so versions never go backwards
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then "
+                    + "redis.call('SET', KEYS[1], ARGV[1]) return tonumber(ARGV[1]) end "
+                    + "return redis.call('INCR', KEYS[1])", Long.class);
+
+    /**
+     * Current catalog version, seeded from the clock so ETags differ across restarts
+     */
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Changes made on this node while Redis was unreachable
+     */
+    private final AtomicLong localEpoch = new AtomicLong();
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.catalog.version.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    /**
+     * Whether the local version has been aligned with Redis at least once
+     */
+    private volatile boolean synced;
+
+    public CatalogVersionService(ApplicationEventPublisher eventPublisher, StringRedisTemplate stringRedisTemplate) {
+        this.eventPublisher = eventPublisher;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * Returns the current catalog version.
+     *
+     * @return the current catalog version
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the number of changes this node could not share through Redis. Anything
+     * keyed by the version must also be keyed by the epoch, so those changes still
+     * invalidate this node's copies.
+     *
+     * @return the local epoch
+     */
+    public long currentEpoch() {
+        return localEpoch.get();
+    }
+
+    /**
+     * Bumps the catalog version. When called inside a transaction the bump is deferred
+     * until after commit, so readers never cache pre-commit data under the new version.
+     *
+     * @param courseId the ID of the course that changed, or null for bulk changes
+     */
+    public void bump(Long courseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(courseId);
+                }
+            });
+        } else {
+            increment(courseId);
+        }
+    }
+
+    /**
+     * Applies a bump broadcast by another node.
+     *
+     * @param payload the broadcast, {@code <version>:<courseId>} with an empty course ID for bulk changes
+     */
+    public void onRemoteBump(String payload) {
+        try {
+            int separator = payload.indexOf(':');
+            long remoteVersion = Long.parseLong(payload.substring(0, separator));
+            String course = payload.substring(separator + 1);
+            advanceTo(remoteVersion, course.isEmpty() ? null : Long.valueOf(course));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed catalog version broadcast '{}': {}", payload, e.getMessage());
+        }
+    }
+
+    /**
+     * Aligns the local version with Redis, catching up on any missed broadcast. The first
+     * run happens at startup.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.version.sync-interval:PT5S}")
+    public void sync() {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            // Seed a missing key from the clock so versions never repeat after a Redis reset
+            stringRedisTemplate.opsForValue().setIfAbsent(VERSION_KEY, Long.toString(System.currentTimeMillis()));
+            String remote = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            if (remote == null) {
+                return;
+            }
+            long remoteVersion = Long.parseLong(remote);
+            if (!synced) {
+                // Redis is the source of truth, even if this node's clock seed is ahead of it
+                version.set(remoteVersion);
+                synced = true;
+                return;
+            }
+            advanceTo(remoteVersion, null);
+        } catch (Exception e) {
+            log.debug("Catalog version sync with Redis failed: {}", e.getMessage());
+        }
+    }
+
+    private void increment(Long courseId) {
+        if (redisEnabled) {
+            try {
+                long floor = Math.max(System.currentTimeMillis(), version.get() + 1);
+                Long newVersion = stringRedisTemplate.execute(BUMP_SCRIPT, List.of(VERSION_KEY), Long.toString(floor));
+                if (newVersion != null) {
+                    stringRedisTemplate.convertAndSend(VERSION_CHANNEL,
+                            newVersion + ":" + (courseId != null ? courseId : ""));
+                    advanceTo(newVersion, courseId);
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("Shared catalog version bump failed, invalidating on this node only: {}", e.getMessage());
+            }
+            // Leave the shared version alone so this node does not skip the next shared bumps
+            localEpoch.incrementAndGet();
+            eventPublisher.publishEvent(new CatalogChangedEvent(version.get(), courseId));
+            return;
+        }
+        long newVersion = version.incrementAndGet();
+        log.debug("Catalog version bumped to {} (course {})", newVersion, courseId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(newVersion, courseId));
+    }
+
+    private void advanceTo(long newVersion, Long courseId) {
+        long previous = version.getAndAccumulate(newVersion, Math::max);
+        if (newVersion > previous) {
+            log.debug("Catalog version advanced to {} (course {})", newVersion, courseId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(newVersion, courseId));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lms.domain.Conversation;
+import com.lms.domain.UserAccount;
+import com.lms.repository.ConversationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Handles the per-node cache of conversation membership. Participants of a conversation
+ * never change, so hot chat paths can validate senders and resolve recipients without
+ * loading the conversation and both users on every message. The participant summaries
+ * (name, email, type) expire after a short TTL so profile edits show up.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component
+public class ConversationMembershipCache {
+
+    /**
+     * Summary of a conversation participant.
+     *
+     * @param id the user ID
+     * @param name the display name
+     * @param email the email
+     * @param userType the user type
+     */
+    public record Participant(Long id, String name, String email, UserAccount.UserType userType) {
+
+        static Participant of(UserAccount user) {
+            return new Participant(user.getId(), user.getName(), user.getEmail(), user.getUserType());
+        }
+    }
+
+    /**
+     * The two participants of a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @param participant1 the first participant
+     * @param participant2 the second participant
+     */
+    public record Membership(Long conversationId, Participant participant1, Participant participant2) {
+
+        public boolean isParticipant(Long userId) {
+            return Objects.equals(participant1.id(), userId) || Objects.equals(participant2.id(), userId);
+        }
+
+        public boolean isFirstParticipant(Long userId) {
+            return Objects.equals(participant1.id(), userId);
+        }
+
+        public Participant participant(Long userId) {
+            return isFirstParticipant(userId) ? participant1 : participant2;
+        }
+
+        public Participant otherParticipant(Long userId) {
+            return isFirstParticipant(userId) ? participant2 : participant1;
+        }
+    }
+
+    private final ConversationRepository conversationRepository;
+    private final Cache<Long, Membership> memberships;
+
+    public ConversationMembershipCache(ConversationRepository conversationRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.messaging.membership-cache.ttl:PT10M}") Duration ttl,
+                                       @Value("${app.messaging.membership-cache.max-size:20000}") long maxSize) {
+        this.conversationRepository = conversationRepository;
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memberships, "conversationMembership");
+    }
+
+    /**
+     * Returns the membership of a conversation, loading it on a miss.
+     *
+     * @param conversationId the conversation ID
+     * @return the membership
+     */
+    public Membership get(Long conversationId) {
+        return memberships.get(conversationId, this::load);
+    }
+
+    private Membership load(Long conversationId) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        return new Membership(conversationId,
+                Participant.of(conversation.getParticipant1()),
+                Participant.of(conversation.getParticipant2()));
+    }
+}
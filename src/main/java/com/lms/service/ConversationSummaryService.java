@@ -0,0 +1,171 @@
+package com.lms.service;
+
+import com.lms.domain.Conversation;
+import com.lms.domain.ConversationSummary;
+import com.lms.domain.Message;
+import com.lms.repository.ConversationSummaryRepository;
+import com.lms.repository.MessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the conversation summary read model behind the inbox. Each conversation has one
+ * summary row per participant, created with the conversation and updated with every new
+ * message; unread counts are read from the maintained counters on the conversation. The
+ * inbox is served newest activity first with a keyset cursor on (activityAt, conversationId).
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class ConversationSummaryService {
+
+    /**
+     * Maximum length of the last-message preview
+     */
+    public static final int PREVIEW_LENGTH = 200;
+
+    private static final int BACKFILL_CHUNK = 500;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    /**
+     * Default number of conversations per inbox page
+     */
+    @Value("${app.messaging.inbox.page-size:30}")
+    private int defaultPageSize;
+
+    /**
+     * Upper bound on the requested inbox page size
+     */
+    @Value("${app.messaging.inbox.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * A page of the inbox.
+     *
+     * @param conversations the inbox entries, most recent activity first
+     * @param hasMore whether older entries exist
+     * @param nextBefore the activity time cursor for the next page, or null
+     * @param nextBeforeId the conversation ID cursor for the next page, or null
+     */
+    public record InboxPage(List<Map<String, Object>> conversations, boolean hasMore,
+                            LocalDateTime nextBefore, Long nextBeforeId) {
+    }
+
+    /**
+     * Creates the summary rows of a new conversation.
+     *
+     * @param conversation the saved conversation
+     */
+    @Transactional
+    public void conversationCreated(Conversation conversation) {
+        if (conversationSummaryRepository.existsByConversationId(conversation.getId())) {
+            return;
+        }
+        LocalDateTime activityAt = conversation.getLastMessageAt() != null
+                ? conversation.getLastMessageAt() : conversation.getCreatedAt();
+        for (Long viewerId : List.of(conversation.getParticipant1().getId(), conversation.getParticipant2().getId())) {
+            ConversationSummary summary = new ConversationSummary();
+            summary.setViewerId(viewerId);
+            summary.setConversation(conversation);
+            summary.setActivityAt(activityAt != null ? activityAt : LocalDateTime.now());
+            summary.setLastMessageAt(conversation.getLastMessageAt());
+            conversationSummaryRepository.save(summary);
+        }
+    }
+
+    /**
+     * Records a new last message for both participants of a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @param senderId the sender's user ID
+     * @param content the message content
+     * @param attachmentName the attachment name, or null
+     * @param sentAt the time the message was sent
+     */
+    @Transactional
+    public void messagePosted(Long conversationId, Long senderId, String content, String attachmentName, LocalDateTime sentAt) {
+        conversationSummaryRepository.updateLastMessage(conversationId, senderId, preview(content, attachmentName), sentAt);
+    }
+
+    /**
+     * Returns one page of a user's inbox.
+     *
+     * @param viewerId the user ID
+     * @param before the activity time cursor, or null for the first page
+     * @param beforeId the conversation ID cursor, required with {@code before}
+     * @param size the page size, or null for the default
+     * @return the inbox page
+     */
+    public InboxPage getInbox(Long viewerId, LocalDateTime before, Long beforeId, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<ConversationSummaryView> rows;
+        if (before != null) {
+            if (beforeId == null) {
+                throw new RuntimeException("beforeId is required with before");
+            }
+            rows = conversationSummaryRepository.findInboxBefore(viewerId, before, beforeId, limit);
+        } else {
+            rows = conversationSummaryRepository.findInbox(viewerId, limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ConversationSummaryView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        ConversationSummaryView last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new InboxPage(
+                page.stream().map(row -> row.toMap(viewerId)).collect(Collectors.toList()),
+                hasMore,
+                hasMore ? last.activityAt() : null,
+                hasMore ? last.conversationId() : null);
+    }
+
+    /**
+     * Backfills summary rows and previews for conversations that predate the read model.
+     */
+    @Transactional
+    public void backfill() {
+        int rows = conversationSummaryRepository.backfillParticipant1()
+                + conversationSummaryRepository.backfillParticipant2();
+
+        List<Long> latestMessageIds = new ArrayList<>();
+        for (Object[] row : conversationSummaryRepository.findLatestMessagesMissingPreview()) {
+            latestMessageIds.add(((Number) row[1]).longValue());
+        }
+        for (int from = 0; from < latestMessageIds.size(); from += BACKFILL_CHUNK) {
+            List<Long> chunk = latestMessageIds.subList(from, Math.min(from + BACKFILL_CHUNK, latestMessageIds.size()));
+            for (Message message : messageRepository.findAllById(chunk)) {
+                conversationSummaryRepository.backfillLastMessage(message.getConversation().getId(),
+                        message.getSender().getId(), preview(message.getContent(), message.getAttachmentName()));
+            }
+        }
+        if (rows > 0 || !latestMessageIds.isEmpty()) {
+            log.info("Backfilled {} conversation summary rows and {} previews", rows, latestMessageIds.size());
+        }
+    }
+
+    private static String preview(String content, String attachmentName) {
+        String text = content != null && !content.isBlank() ? content.strip() : attachmentName;
+        if (text == null) {
+            return "";
+        }
+        return text.length() > PREVIEW_LENGTH ? text.substring(0, PREVIEW_LENGTH - 1) + "…" : text;
+    }
+}
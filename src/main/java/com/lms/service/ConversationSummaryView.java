@@ -0,0 +1,75 @@
+package com.lms.service;
+
+import com.lms.domain.UserAccount;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One inbox row as projected by the conversation summary query: the conversation, both
+ * participants, the course, the last-message preview and both unread counters.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public record ConversationSummaryView(Long conversationId,
+                                      LocalDateTime createdAt,
+                                      LocalDateTime activityAt,
+                                      LocalDateTime lastMessageAt,
+                                      String lastMessagePreview,
+                                      Long lastMessageSenderId,
+                                      Long participant1Id,
+                                      String participant1Name,
+                                      String participant1Email,
+                                      UserAccount.UserType participant1Type,
+                                      Long participant2Id,
+                                      String participant2Name,
+                                      String participant2Email,
+                                      UserAccount.UserType participant2Type,
+                                      Long participant1UnreadCount,
+                                      Long participant2UnreadCount,
+                                      Long courseId,
+                                      String courseTitle) {
+
+    /**
+     * Builds the response map of this row for the given viewer.
+     *
+     * @param viewerId the user viewing the inbox
+     * @return the inbox entry
+     */
+    public Map<String, Object> toMap(Long viewerId) {
+        boolean viewerIsFirst = Objects.equals(participant1Id, viewerId);
+        Map<String, Object> participant1 = participant(participant1Id, participant1Name, participant1Email, participant1Type);
+        Map<String, Object> participant2 = participant(participant2Id, participant2Name, participant2Email, participant2Type);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", conversationId);
+        map.put("createdAt", createdAt);
+        map.put("lastMessageAt", lastMessageAt);
+        map.put("lastMessagePreview", lastMessagePreview);
+        map.put("lastMessageSenderId", lastMessageSenderId);
+        map.put("lastMessageFromMe", lastMessageSenderId != null && lastMessageSenderId.equals(viewerId));
+        map.put("participant1", participant1);
+        map.put("participant2", participant2);
+        map.put("otherParticipant", viewerIsFirst ? participant2 : participant1);
+        map.put("unreadCount", viewerIsFirst ? participant1UnreadCount : participant2UnreadCount);
+        if (courseId != null) {
+            Map<String, Object> course = new HashMap<>();
+            course.put("id", courseId);
+            course.put("title", courseTitle);
+            map.put("course", course);
+        }
+        return map;
+    }
+
+    private static Map<String, Object> participant(Long id, String name, String email, UserAccount.UserType type) {
+        Map<String, Object> participant = new HashMap<>();
+        participant.put("id", id);
+        participant.put("name", name);
+        participant.put("email", email);
+        participant.put("userType", type != null ? type.name() : null);
+        return participant;
+    }
+}
@@ -0,0 +1,397 @@
+package com.lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lms.domain.CourseChannelMessage;
+import com.lms.domain.UserAccount;
+import com.lms.repository.CourseChannelMessageRepository;
+import com.lms.repository.CourseEnrollmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handles course-wide chat channels. Each course has one STOMP topic,
+ * {@code /topic/course/{courseId}/chat}; posting publishes once to that topic and the
+ * broker fans it out, so the sender's cost does not depend on the audience size.
+ * Membership is derived from enrollments (plus the instructor and admins) and cached.
+ * Every node keeps the most recent messages of active channels in a bounded ring buffer,
+ * fed by local delivery so it also sees messages posted on other nodes, which lets a
+ * joining client load history without a query. Messages are persisted asynchronously
+ * in JDBC batches.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class CourseChannelService implements DisposableBean {
+
+    private static final String TOPIC_PREFIX = "/topic/course/";
+    private static final String TOPIC_SUFFIX = "/chat";
+
+    private static final Comparator<ChannelMessage> HISTORY_ORDER =
+            Comparator.comparing(ChannelMessage::sentAt).thenComparing(ChannelMessage::id);
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO course_channel_messages "
+            + "(id, course_id, sender_id, sender_name, sender_type, content, attachment_url, attachment_name, sent_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * A course channel message as pushed to subscribers and kept in the ring buffer.
+     */
+    public record ChannelMessage(Long id, Long courseId, Long senderId, String senderName, String senderType,
+                                 String content, String attachmentUrl, String attachmentName, LocalDateTime sentAt) {
+
+        static ChannelMessage of(CourseChannelMessage message) {
+            return new ChannelMessage(message.getId(), message.getCourseId(), message.getSenderId(),
+                    message.getSenderName(), message.getSenderType(), message.getContent(),
+                    message.getAttachmentUrl(), message.getAttachmentName(), message.getSentAt());
+        }
+    }
+
+    /**
+     * Cached membership of a user in a course channel
+     */
+    private record ChannelMember(boolean member, String name, String userType) {
+    }
+
+    /**
+     * Bounded ring buffer of a channel's most recent messages, oldest overwritten first
+     */
+    private static final class RingBuffer {
+        private final ChannelMessage[] slots;
+        private int next;
+        private int size;
+
+        RingBuffer(int capacity) {
+            this.slots = new ChannelMessage[capacity];
+        }
+
+        synchronized void add(ChannelMessage message) {
+            for (int i = 0; i < size; i++) {
+                ChannelMessage existing = slots[Math.floorMod(next - 1 - i, slots.length)];
+                if (Objects.equals(existing.id(), message.id())) {
+                    return;
+                }
+            }
+            slots[next] = message;
+            next = (next + 1) % slots.length;
+            size = Math.min(size + 1, slots.length);
+        }
+
+        synchronized ChannelMessage find(Long id) {
+            for (int i = 0; i < size; i++) {
+                ChannelMessage message = slots[Math.floorMod(next - 1 - i, slots.length)];
+                if (Objects.equals(message.id(), id)) {
+                    return message;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns up to {@code limit} newest messages older than the cursor, oldest first
+         */
+        synchronized List<ChannelMessage> before(ChannelMessage cursor, int limit) {
+            List<ChannelMessage> older = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ChannelMessage message = slots[Math.floorMod(next - 1 - i, slots.length)];
+                if (HISTORY_ORDER.compare(message, cursor) < 0) {
+                    older.add(message);
+                }
+            }
+            older.sort(HISTORY_ORDER);
+            return older.subList(Math.max(0, older.size() - limit), older.size());
+        }
+
+        /**
+         * Returns up to {@code limit} newest messages, oldest first
+         */
+        synchronized List<ChannelMessage> latest(int limit) {
+            int count = Math.min(limit, size);
+            List<ChannelMessage> result = new ArrayList<>(count);
+            for (int i = count; i >= 1; i--) {
+                result.add(slots[Math.floorMod(next - i, slots.length)]);
+            }
+            return result;
+        }
+    }
+
+    private final RealtimeDeliveryService realtimeDeliveryService;
+    private final CourseChannelMessageRepository channelMessageRepository;
+    private final CourseRepository courseRepository;
+    private final CourseEnrollmentRepository courseEnrollmentRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageIdAllocator idAllocator;
+    private final int historySize;
+    private final int batchSize;
+    private final Cache<Long, RingBuffer> histories;
+    private final Cache<List<Long>, ChannelMember> members;
+
+    private final ConcurrentLinkedQueue<ChannelMessage> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final List<ChannelMessage> retry = new ArrayList<>();
+    private final int maxPending;
+    private final Counter flushFailures;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "channel-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CourseChannelService(RealtimeDeliveryService realtimeDeliveryService,
+                                CourseChannelMessageRepository channelMessageRepository,
+                                CourseRepository courseRepository,
+                                CourseEnrollmentRepository courseEnrollmentRepository,
+                                UserAccountRepository userAccountRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.messaging.channels.history-size:200}") int historySize,
+                                @Value("${app.messaging.channels.max-active:5000}") long maxActiveChannels,
+                                @Value("${app.messaging.channels.idle-timeout:PT30M}") Duration idleTimeout,
+                                @Value("${app.messaging.channels.membership-ttl:PT5M}") Duration membershipTtl,
+                                @Value("${app.messaging.channels.flush-interval:PT0.2S}") Duration flushInterval,
+                                @Value("${app.messaging.channels.batch-size:500}") int batchSize,
+                                @Value("${app.messaging.channels.max-pending:20000}") int maxPending,
+                                @Value("${app.messaging.channels.id-block-size:200}") int idBlockSize) {
+        this.realtimeDeliveryService = realtimeDeliveryService;
+        this.channelMessageRepository = channelMessageRepository;
+        this.courseRepository = courseRepository;
+        this.courseEnrollmentRepository = courseEnrollmentRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = new MessageIdAllocator("course_channel_messages", jdbcTemplate, transactionManager, idBlockSize);
+        this.historySize = Math.max(1, historySize);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.histories = Caffeine.newBuilder()
+                .maximumSize(maxActiveChannels)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.members = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(membershipTtl)
+                .build();
+        Gauge.builder("messaging.channels.pending", pendingCount, AtomicInteger::get)
+                .description("Course channel messages accepted but not yet persisted")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("messaging.channels.flush.failures")
+                .description("Failed course channel batch writes, retried on the next flush")
+                .register(meterRegistry);
+
+        // Keep every node's ring buffers in step with deliveries, wherever the message was posted
+        realtimeDeliveryService.addDeliveryListener(TOPIC_PREFIX, ChannelMessage.class,
+                message -> history(message.courseId()).add(message));
+
+        long intervalMs = Math.max(10, flushInterval.toMillis());
+        writer.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the STOMP topic of a course channel.
+     *
+     * @param courseId the course ID
+     * @return the topic destination
+     */
+    public static String topic(Long courseId) {
+        return TOPIC_PREFIX + courseId + TOPIC_SUFFIX;
+    }
+
+    /**
+     * Whether a user may read and post in a course channel.
+     *
+     * @param courseId the course ID
+     * @param userId the user ID
+     * @return true for the instructor, enrolled students and admins
+     */
+    public boolean isMember(Long courseId, Long userId) {
+        return member(courseId, userId).member();
+    }
+
+    /**
+     * Posts a message to a course channel.
+     *
+     * @param courseId the course ID
+     * @param senderId the sender's user ID
+     * @param content the message content
+     * @param attachmentUrl the attachment URL, or null
+     * @param attachmentName the attachment name, or null
+     * @return the posted message
+     */
+    public ChannelMessage post(Long courseId, Long senderId, String content, String attachmentUrl, String attachmentName) {
+        ChannelMember sender = member(courseId, senderId);
+        if (!sender.member()) {
+            throw new RuntimeException("User is not a member of this course channel");
+        }
+        boolean hasAttachment = attachmentUrl != null && !attachmentUrl.isEmpty();
+        if ((content == null || content.isBlank()) && !hasAttachment) {
+            throw new RuntimeException("Message content or attachment is required");
+        }
+        if (pendingCount.get() >= maxPending) {
+            throw new RuntimeException("Channel messaging is busy, please retry shortly");
+        }
+        ChannelMessage message = new ChannelMessage(idAllocator.nextId(), courseId, senderId, sender.name(),
+                sender.userType(), content != null ? content : "",
+                hasAttachment ? attachmentUrl : null, hasAttachment ? attachmentName : null, LocalDateTime.now());
+        pending.add(message);
+        pendingCount.incrementAndGet();
+        // One publish; the broker fans out to every subscriber
+        realtimeDeliveryService.send(topic(courseId), message);
+        return message;
+    }
+
+    /**
+     * Returns a page of channel history, oldest first. The newest page is served from
+     * the ring buffer; older pages are read from the database by (sentAt, id) cursor,
+     * merged with the ring buffer so messages not yet persisted are neither missing nor
+     * rejected as a cursor.
+     *
+     * @param courseId the course ID
+     * @param beforeId return messages older than this message, or null for the newest
+     * @param size the page size
+     * @return the messages, oldest first
+     */
+    public List<ChannelMessage> getHistory(Long courseId, Long beforeId, int size) {
+        int pageSize = Math.max(1, size);
+        if (beforeId == null && pageSize <= historySize) {
+            return history(courseId).latest(pageSize);
+        }
+        if (beforeId == null) {
+            List<ChannelMessage> result = new ArrayList<>(channelMessageRepository
+                    .findLatest(courseId, PageRequest.of(0, pageSize)).stream().map(ChannelMessage::of).toList());
+            Collections.reverse(result);
+            return result;
+        }
+        RingBuffer buffer = history(courseId);
+        ChannelMessage cursor = buffer.find(beforeId);
+        if (cursor == null) {
+            cursor = channelMessageRepository.findById(beforeId)
+                    .filter(m -> m.getCourseId().equals(courseId))
+                    .map(ChannelMessage::of)
+                    .orElseThrow(() -> new RuntimeException("Message not found in channel: " + beforeId));
+        }
+        List<ChannelMessage> buffered = buffer.before(cursor, pageSize);
+        if (buffered.size() == pageSize) {
+            return buffered;
+        }
+        Map<Long, ChannelMessage> merged = new HashMap<>();
+        buffered.forEach(m -> merged.put(m.id(), m));
+        channelMessageRepository.findBefore(courseId, cursor.sentAt(), cursor.id(), PageRequest.of(0, pageSize))
+                .forEach(m -> merged.putIfAbsent(m.getId(), ChannelMessage.of(m)));
+        List<ChannelMessage> result = new ArrayList<>(merged.values());
+        result.sort(HISTORY_ORDER);
+        return result.subList(Math.max(0, result.size() - pageSize), result.size());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+        // Drain everything still queued, stopping only if the database keeps failing
+        while (!pending.isEmpty() || !retry.isEmpty()) {
+            if (!writeBatch()) {
+                break;
+            }
+        }
+        int unsaved = pendingCount.get() + retry.size();
+        if (unsaved > 0) {
+            log.error("Shutting down with {} course channel messages not persisted", unsaved);
+        }
+    }
+
+    private RingBuffer history(Long courseId) {
+        return histories.get(courseId, id -> {
+            // Seed a cold buffer with the newest persisted messages
+            RingBuffer buffer = new RingBuffer(historySize);
+            List<CourseChannelMessage> latest = channelMessageRepository.findLatest(id, PageRequest.of(0, historySize));
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                buffer.add(ChannelMessage.of(latest.get(i)));
+            }
+            return buffer;
+        });
+    }
+
+    private ChannelMember member(Long courseId, Long userId) {
+        return members.get(List.of(courseId, userId), key -> {
+            UserAccount user = userAccountRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return new ChannelMember(false, null, null);
+            }
+            String userType = user.getUserType() != null ? user.getUserType().name() : null;
+            boolean member = user.getUserType() == UserAccount.UserType.ADMIN
+                    || courseRepository.findInstructorIdById(courseId).map(userId::equals).orElse(false)
+                    || courseEnrollmentRepository.existsByStudentIdAndCourseId(userId, courseId);
+            return new ChannelMember(member, user.getName(), userType);
+        });
+    }
+
+    private void flush() {
+        if (writeBatch() && !pending.isEmpty()) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes the retry batch topped up from the queue.
+     *
+     * @return false if the write failed
+     */
+    private boolean writeBatch() {
+        ChannelMessage message;
+        while (retry.size() < batchSize && (message = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            retry.add(message);
+        }
+        if (retry.isEmpty()) {
+            return true;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, retry, batchSize, (ps, m) -> {
+                ps.setLong(1, m.id());
+                ps.setLong(2, m.courseId());
+                ps.setLong(3, m.senderId());
+                ps.setString(4, m.senderName());
+                ps.setString(5, m.senderType());
+                ps.setString(6, m.content());
+                ps.setString(7, m.attachmentUrl());
+                ps.setString(8, m.attachmentName());
+                ps.setTimestamp(9, Timestamp.valueOf(m.sentAt()));
+            });
+            retry.clear();
+            return true;
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("Failed to persist {} course channel messages, will retry: {}", retry.size(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -28,6 +28,9 @@ public class CourseOfferService {
     @Autowired(required = false)
     private UserAccountRepository userAccountRepository;
 
+    @Autowired
+    private NotificationDigestService notificationDigestService;
+
     /**
      * Get active offers for a specific course
      */
@@ -145,27 +148,32 @@ public class CourseOfferService {
             }
 
             // Notify all teachers in these organizations
+            List<Long> teacherIds = new java.util.ArrayList<>();
             for (Organization org : organizations) {
-                List<UserAccount> teachers = userAccountRepository.findByOrganizationId(org.getId());
-                for (UserAccount teacher : teachers) {
-                    if (teacher.getUserType() == UserAccount.UserType.TEACHER) {
-                        String message = String.format(
-                            "A new offer '%s' has been created. %s",
-                            offer.getTitle(),
-                            offer.getDescription() != null && offer.getDescription().length() > 100 
-                                ? offer.getDescription().substring(0, 100) + "..." 
-                                : (offer.getDescription() != null ? offer.getDescription() : "")
-                        );
-                        notificationService.createNotification(
-                            teacher.getId(),
-                            "New Offer Created",
-                            message,
-                            Notification.NotificationType.INFO,
-                            "/ui/lms/admin/coupons"
-                        );
-                    }
-                }
+                teacherIds.addAll(userAccountRepository.findIdsByOrganizationIdAndUserType(
+                        org.getId(), UserAccount.UserType.TEACHER));
             }
+            String message = String.format(
+                "A new offer '%s' has been created. %s",
+                offer.getTitle(),
+                offer.getDescription() != null && offer.getDescription().length() > 100 
+                    ? offer.getDescription().substring(0, 100) + "..." 
+                    : (offer.getDescription() != null ? offer.getDescription() : "")
+            );
+            notificationDigestService.publish(
+                teacherIds,
+                new NotificationDigestService.DigestEvent(
+                    "offer",
+                    "New offers created",
+                    Notification.NotificationType.INFO,
+                    "New Offer Created",
+                    message,
+                    "/ui/lms/admin/coupons",
+                    null,
+                    null,
+                    true
+                )
+            );
         } catch (Exception e) {
             log.error("Failed to notify teachers about offer {}: {}", offer.getId(), e.getMessage(), e);
         }
@@ -2,6 +2,7 @@ package com.lms.service;
 
 import com.lms.domain.*;
 import com.lms.repository.*;
+import com.lms.security.CurrentUserContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
@@ -38,7 +39,10 @@ public class CourseService {
     private StudyMaterialRepository studyMaterialRepository;
 
     @Autowired
-    private UserAccountRepository userAccountRepository;
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CurrentUserContext currentUserContext;
 
     /**
      * Retrieves all published courses with initialized relationships.
@@ -196,7 +200,7 @@ public class CourseService {
      * @return the list of courses created by the instructor
      */
     public List<Course> getCoursesByInstructor(Long instructorId) {
-        return userAccountRepository.findById(instructorId)
+        return currentUserContext.findUser(instructorId)
                 .map(courseRepository::findByInstructor)
                 .orElse(List.of());
     }
@@ -221,7 +225,7 @@ public class CourseService {
     @Transactional
     @CacheEvict(value = {"courses", "popularCourses", "searchResults", "courseDetails"}, allEntries = true)
     public Course createCourse(Course course, Long instructorId) {
-        UserAccount instructor = userAccountRepository.findById(instructorId)
+        UserAccount instructor = currentUserContext.findUser(instructorId)
                 .orElseThrow(() -> new RuntimeException("Instructor not found"));
         
         course.setInstructor(instructor);
@@ -231,7 +235,9 @@ public class CourseService {
         }
         course.setStatus(Course.CourseStatus.DRAFT);
         course.setCreatedAt(LocalDateTime.now());
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        catalogVersionService.bump(saved.getId());
+        return saved;
     }
 
     /**
@@ -260,6 +266,7 @@ public class CourseService {
             course.setOrganization(course.getInstructor().getOrganization());
         }
         
+        catalogVersionService.bump(courseId);
         return courseRepository.save(course);
     }
 
@@ -269,6 +276,7 @@ public class CourseService {
      * @param courseId the ID of the course to publish
      */
     @Transactional
+    @CacheEvict(value = {"courses", "popularCourses", "searchResults", "courseDetails"}, allEntries = true)
     public void publishCourse(Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
@@ -276,6 +284,7 @@ public class CourseService {
         course.setStatus(Course.CourseStatus.PUBLISHED);
         course.setPublishedAt(LocalDateTime.now());
         courseRepository.save(course);
+        catalogVersionService.bump(courseId);
     }
 
     /**
@@ -284,6 +293,7 @@ public class CourseService {
      * @param courseId the ID of the course to unpublish
      */
     @Transactional
+    @CacheEvict(value = {"courses", "popularCourses", "searchResults", "courseDetails"}, allEntries = true)
     public void unpublishCourse(Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
@@ -291,6 +301,7 @@ public class CourseService {
         course.setStatus(Course.CourseStatus.DRAFT);
         course.setUpdatedAt(LocalDateTime.now());
         courseRepository.save(course);
+        catalogVersionService.bump(courseId);
     }
 
     /**
@@ -306,6 +317,17 @@ public class CourseService {
         
         // Delete all related entities (cascade should handle most, but explicit deletion is safer)
         courseRepository.delete(course);
+        catalogVersionService.bump(courseId);
+    }
+
+    /**
+     * Evicts cached catalog data after a course was changed outside this service.
+     *
+     * @param courseId the ID of the course that changed
+     */
+    @CacheEvict(value = {"courses", "popularCourses", "searchResults", "courseDetails"}, allEntries = true)
+    public void evictCatalogCaches(Long courseId) {
+        catalogVersionService.bump(courseId);
     }
 
     /**
@@ -319,6 +341,7 @@ public class CourseService {
                 .orElseThrow(() -> new RuntimeException("Lecture not found"));
         
         lectureRepository.delete(lecture);
+        catalogVersionService.bump(lecture.getCourse() != null ? lecture.getCourse().getId() : null);
     }
 
     /**
@@ -338,6 +361,7 @@ public class CourseService {
             List<Lecture> existingLectures = lectureRepository.findByCourseIdOrderBySequenceOrderAsc(courseId);
             lecture.setSequenceOrder(existingLectures.size() + 1);
         }
+        catalogVersionService.bump(courseId);
         return lectureRepository.save(lecture);
     }
 
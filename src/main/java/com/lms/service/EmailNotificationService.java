@@ -304,7 +304,35 @@ public class EmailNotificationService {
             }
         });
     }
-}
-
-
 
+    /**
+     * Sends a plain-text email synchronously, for callers that already run off the request
+     * thread and batch their sends, such as the notification digest.
+     *
+     * @param user the recipient
+     * @param subject the subject
+     * @param body the text after the greeting
+     * @return true if the email was handed to the mail server
+     */
+    public boolean sendDigestEmail(UserAccount user, String subject, String body) {
+        if (!emailNotificationsEnabled || mailSender == null || user.getEmail() == null) return false;
+
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(user.getEmail());
+            message.setSubject(subject);
+            message.setFrom(fromEmail);
+            message.setText(String.format(
+                    "Hello %s,\n\n%s\n\nBest regards,\nLMS Team",
+                    user.getName() != null ? user.getName() : "Student",
+                    body
+            ));
+
+            mailSender.send(message);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to send digest email to user {} ('{}'): {}", user.getId(), subject, e.getMessage(), e);
+            return false;
+        }
+    }
+}
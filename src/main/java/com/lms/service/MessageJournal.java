@@ -0,0 +1,168 @@
+package com.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Handles the local append-only journal of accepted but not yet persisted messages.
+ * Appends go to the active segment; the writer seals the active segment when it drains
+ * a batch and deletes sealed segments once their batch is committed, so after a crash
+ * the surviving segments hold exactly the messages that may be missing from the database.
+ * Callers are responsible for serializing {@link #append} and {@link #seal}.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+public class MessageJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final List<Path> recoveredSegments;
+
+    private long segmentSequence;
+    private Path activePath;
+    private FileChannel activeChannel;
+
+    public MessageJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                this.recoveredSegments = files
+                        .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open message journal in " + directory, e);
+        }
+        openSegment();
+    }
+
+    /**
+     * Returns the segments left behind by a previous run, oldest first.
+     *
+     * @return the recovered segment files
+     */
+    public List<Path> getRecoveredSegments() {
+        return recoveredSegments;
+    }
+
+    /**
+     * Reads all lines of a segment, skipping a torn last line.
+     *
+     * @param segment the segment file
+     * @return the complete lines of the segment
+     */
+    public List<String> readLines(Path segment) throws IOException {
+        String text = Files.readString(segment);
+        List<String> lines = new ArrayList<>(text.lines().toList());
+        if (!text.isEmpty() && !text.endsWith("\n") && !lines.isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    /**
+     * Appends one record line to the active segment.
+     *
+     * @param line the serialized record, without line terminator
+     */
+    public void append(byte[] line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+            while (buffer.hasRemaining()) {
+                activeChannel.write(buffer);
+            }
+            if (fsync) {
+                activeChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to message journal", e);
+        }
+    }
+
+    /**
+     * Appends a record the database rejected to the dead-letter file, which is kept for
+     * inspection and never replayed.
+     *
+     * @param line the serialized record, without line terminator
+     */
+    public void appendDeadLetter(byte[] line) throws IOException {
+        byte[] record = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').array();
+        Files.write(directory.resolve(DEAD_LETTER_FILE), record, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Seals the active segment and starts a new one.
+     *
+     * @return the sealed segment
+     */
+    public Path seal() {
+        Path sealed = activePath;
+        closeActive();
+        openSegment();
+        return sealed;
+    }
+
+    /**
+     * Deletes segments whose messages are committed.
+     *
+     * @param segments the segments to delete
+     */
+    public void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                // Replaying it later is harmless: inserts skip existing IDs
+                log.warn("Could not delete journal segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the active segment.
+     */
+    public void close() {
+        closeActive();
+    }
+
+    private void openSegment() {
+        segmentSequence++;
+        activePath = directory.resolve(String.format("%s%d-%06d%s",
+                SEGMENT_PREFIX, System.currentTimeMillis(), segmentSequence, SEGMENT_SUFFIX));
+        try {
+            activeChannel = FileChannel.open(activePath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open message journal segment " + activePath, e);
+        }
+    }
+
+    private void closeActive() {
+        try {
+            if (activeChannel != null) {
+                activeChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing journal segment {}: {}", activePath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.lms.service;
+
+import com.lms.domain.Message;
+import com.lms.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the full-text message search index. Every message is tokenized into postings
+ * filed under both participants of its conversation, so a search reads only the
+ * searcher's own postings from the primary key range (user, term) and never scans
+ * messages. Indexing happens asynchronously after the message commits, in batches on a
+ * single background thread; messages that predate the index are backfilled on startup.
+ * Messages that miss the live path (a full queue or a failed batch write) lower a catch-up
+ * position, persisted across restarts, from which the worker re-reads committed messages
+ * until it reaches the newest; postings are idempotent, so re-indexing is harmless.
+ * Queries support ranking (rarer terms and repeated terms weigh more, ties go to the most
+ * recent message), quoted phrases, trailing-{@code *} prefixes and pagination.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@Order(5)
+public class MessageSearchService implements ApplicationRunner, DisposableBean {
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO message_search_postings "
+            + "(user_id, term, message_id, conversation_id, sent_at, term_frequency, positions) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_POSITIONS_LENGTH = 1000;
+
+    private static final long NO_CATCH_UP = Long.MAX_VALUE;
+
+    private static final Pattern QUERY_PART = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+
+    /**
+     * A message waiting to be indexed
+     */
+    private record IndexTask(Long messageId, Long conversationId, String content, LocalDateTime sentAt) {
+    }
+
+    /**
+     * One term of a query clause, at its offset within the clause
+     */
+    private record QueryTerm(String term, int offset, boolean prefix) {
+    }
+
+    /**
+     * Postings of one term for one message
+     */
+    private record Posting(Long conversationId, LocalDateTime sentAt, int termFrequency, int[] positions) {
+    }
+
+    /**
+     * A page of search results.
+     *
+     * @param messages the matching messages on this page, best match first
+     * @param scores the relevance score of each message on this page, by message ID
+     * @param total the total number of matching messages
+     * @param page the zero-based page number
+     * @param size the page size
+     */
+    public record SearchPage(List<Message> messages, Map<Long, Double> scores, int total, int page, int size) {
+    }
+
+    /**
+     * Matching message IDs, best match first, with their scores
+     */
+    private record Ranking(List<Long> ids, Map<Long, Double> scores) {
+    }
+
+    private final ConversationMembershipCache membershipCache;
+    private final MessageRepository messageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<IndexTask> queue;
+    private final Counter droppedCounter;
+    private final Counter failureCounter;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Lowest message ID that may be missing from the index, or {@link #NO_CATCH_UP}
+     */
+    private final AtomicLong catchUpFrom = new AtomicLong(NO_CATCH_UP);
+
+    /**
+     * Worker-thread state: the catch-up position last written to message_search_state
+     */
+    private long persistedCatchUpFrom = NO_CATCH_UP;
+    private volatile boolean stateReady;
+
+    @Value("${app.messaging.search.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.messaging.search.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.messaging.search.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Bound on postings read per query term, which caps memory for very broad prefixes
+     */
+    @Value("${app.messaging.search.max-postings-per-term:100000}")
+    private int maxPostingsPerTerm;
+
+    @Value("${app.messaging.search.backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    public MessageSearchService(ConversationMembershipCache membershipCache,
+                                MessageRepository messageRepository,
+                                JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.messaging.search.queue-capacity:10000}") int queueCapacity) {
+        this.membershipCache = membershipCache;
+        this.messageRepository = messageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("messaging.search.index.queue", queue, BlockingQueue::size)
+                .description("Messages waiting to be added to the search index")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("messaging.search.index.dropped")
+                .description("Messages left to catch-up indexing because the index queue was full")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("messaging.search.index.failures")
+                .description("Failed search index batch writes, left to catch-up indexing")
+                .register(meterRegistry);
+        this.worker = new Thread(this::runWorker, "message-indexer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a message for indexing once the current transaction commits.
+     *
+     * @param messageId the message ID
+     * @param conversationId the conversation ID
+     * @param content the message content
+     * @param sentAt the time the message was sent
+     */
+    public void indexAfterCommit(Long messageId, Long conversationId, String content, LocalDateTime sentAt) {
+        IndexTask task = new IndexTask(messageId, conversationId, content, sentAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(task);
+                }
+            });
+        } else {
+            enqueue(task);
+        }
+    }
+
+    /**
+     * Searches the messages of a user's conversations.
+     *
+     * @param userId the searching user
+     * @param query the query: words, "quoted phrases" and prefix* terms, all of which must match
+     * @param conversationId restrict to one conversation, or null for all
+     * @param page the zero-based page, or null for the first
+     * @param size the page size, or null for the default
+     * @return the page of results
+     */
+    public SearchPage search(Long userId, String query, Long conversationId, Integer page, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        Ranking ranking = rank(userId, query, conversationId);
+        List<Long> ranked = ranking.ids();
+
+        int from = Math.min(pageNumber * pageSize, ranked.size());
+        List<Long> pageIds = ranked.subList(from, Math.min(from + pageSize, ranked.size()));
+        List<Message> messages = load(pageIds);
+        Map<Long, Double> pageScores = new LinkedHashMap<>();
+        messages.forEach(message -> pageScores.put(message.getId(), ranking.scores().get(message.getId())));
+        return new SearchPage(messages, pageScores, ranked.size(), pageNumber, pageSize);
+    }
+
+    /**
+     * Returns every message of a user's conversations that matches a query, unpaged.
+     *
+     * @param userId the searching user
+     * @param query the query, as for {@link #search}
+     * @param conversationId restrict to one conversation, or null for all
+     * @return the matching messages, best match first
+     */
+    public List<Message> searchAll(Long userId, String query, Long conversationId) {
+        List<Long> ranked = rank(userId, query, conversationId).ids();
+        List<Message> messages = new ArrayList<>(ranked.size());
+        for (int from = 0; from < ranked.size(); from += maxPageSize) {
+            messages.addAll(load(ranked.subList(from, Math.min(from + maxPageSize, ranked.size()))));
+        }
+        return messages;
+    }
+
+    private Ranking rank(Long userId, String query, Long conversationId) {
+        List<List<QueryTerm>> clauses = parseQuery(query);
+        if (clauses.isEmpty()) {
+            return new Ranking(List.of(), Map.of());
+        }
+
+        // Load each distinct term's postings once
+        Map<QueryTerm, Map<Long, Posting>> postings = new HashMap<>();
+        for (List<QueryTerm> clause : clauses) {
+            for (QueryTerm term : clause) {
+                QueryTerm key = new QueryTerm(term.term(), 0, term.prefix());
+                postings.computeIfAbsent(key, k -> loadPostings(userId, k, conversationId));
+            }
+        }
+        int maxDf = postings.values().stream().mapToInt(Map::size).max().orElse(1);
+
+        Map<Long, Double> scores = null;
+        Map<Long, Posting> anyPosting = new HashMap<>();
+        for (List<QueryTerm> clause : clauses) {
+            Map<Long, Double> clauseScores = matchClause(clause, postings, maxDf, anyPosting);
+            if (scores == null) {
+                scores = clauseScores;
+            } else {
+                Map<Long, Double> previous = scores;
+                scores = clauseScores.entrySet().stream()
+                        .filter(entry -> previous.containsKey(entry.getKey()))
+                        .collect(Collectors.toMap(Map.Entry::getKey,
+                                entry -> entry.getValue() + previous.get(entry.getKey())));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        Map<Long, Double> finalScores = scores;
+        List<Long> ranked = finalScores.keySet().stream()
+                .sorted(Comparator.<Long>comparingDouble(finalScores::get).reversed()
+                        .thenComparing((Long id) -> anyPosting.get(id).sentAt(), Comparator.reverseOrder())
+                        .thenComparing(Comparator.reverseOrder()))
+                .toList();
+        return new Ranking(ranked, finalScores);
+    }
+
+    /**
+     * Loads messages by ID, keeping the order of the IDs and skipping deleted messages.
+     */
+    private List<Message> load(List<Long> ids) {
+        Map<Long, Message> loaded = messageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Message::getId, message -> message));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Restores the catch-up position of a previous run, then backfills the index with
+     * messages that predate it, in the background.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS message_search_state ("
+                    + "name VARCHAR(64) NOT NULL PRIMARY KEY, last_message_id BIGINT NOT NULL)");
+            List<Long> saved = jdbcTemplate.queryForList(
+                    "SELECT last_message_id FROM message_search_state WHERE name = 'catch-up'", Long.class);
+            if (!saved.isEmpty()) {
+                persistedCatchUpFrom = saved.get(0);
+                markMissed(saved.get(0));
+                log.info("Resuming search index catch-up from message {}", saved.get(0));
+            }
+            stateReady = true;
+        } catch (Exception e) {
+            log.warn("Could not load search index state: {}", e.getMessage());
+        }
+        if (!backfillEnabled) {
+            return;
+        }
+        Thread backfill = new Thread(this::backfill, "message-index-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void enqueue(IndexTask task) {
+        if (!queue.offer(task)) {
+            droppedCounter.increment();
+            markMissed(task.messageId());
+            log.warn("Search index queue full, message {} left to catch-up indexing", task.messageId());
+        }
+    }
+
+    private void markMissed(long messageId) {
+        catchUpFrom.accumulateAndGet(messageId, Math::min);
+    }
+
+    private void runWorker() {
+        List<IndexTask> batch = new ArrayList<>();
+        while (running) {
+            try {
+                IndexTask first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, Math.max(0, batchSize - 1));
+                    writeLive(batch);
+                }
+                // Live messages first, then one catch-up chunk, so catching up never starves the queue
+                catchUp();
+                persistCatchUp();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Search index catch-up failed, will retry: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeLive(List<IndexTask> batch) {
+        try {
+            writePostings(batch);
+        } catch (Exception e) {
+            failureCounter.increment();
+            batch.stream().mapToLong(IndexTask::messageId).min().ifPresent(this::markMissed);
+            log.warn("Failed to index {} messages, left to catch-up indexing: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-indexes one chunk of committed messages from the catch-up position, and clears the
+     * position once a chunk reaches the newest message.
+     */
+    private void catchUp() {
+        long from = catchUpFrom.get();
+        if (from == NO_CATCH_UP) {
+            return;
+        }
+        List<IndexTask> chunk = jdbcTemplate.query(
+                "SELECT id, conversation_id, content, sent_at FROM messages WHERE id >= ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new IndexTask(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                        rs.getTimestamp(4).toLocalDateTime()),
+                from, batchSize);
+        if (!chunk.isEmpty()) {
+            writePostings(chunk);
+        }
+        long next = chunk.size() < batchSize ? NO_CATCH_UP : chunk.get(chunk.size() - 1).messageId() + 1;
+        // Fails if a message was missed meanwhile; the next round then starts from the lower ID
+        if (catchUpFrom.compareAndSet(from, next) && next == NO_CATCH_UP) {
+            log.info("Search index caught up from message {}", from);
+        }
+    }
+
+    private void persistCatchUp() {
+        long current = catchUpFrom.get();
+        if (!stateReady || current == persistedCatchUpFrom) {
+            return;
+        }
+        if (current == NO_CATCH_UP) {
+            jdbcTemplate.update("DELETE FROM message_search_state WHERE name = 'catch-up'");
+        } else {
+            jdbcTemplate.update("INSERT INTO message_search_state (name, last_message_id) VALUES ('catch-up', ?) "
+                    + "ON DUPLICATE KEY UPDATE last_message_id = ?", current, current);
+        }
+        persistedCatchUpFrom = current;
+    }
+
+    private void writePostings(List<IndexTask> tasks) {
+        List<Object[]> rows = new ArrayList<>();
+        for (IndexTask task : tasks) {
+            ConversationMembershipCache.Membership membership = membershipCache.get(task.conversationId());
+            Map<String, List<Integer>> positions = new LinkedHashMap<>();
+            for (MessageSearchTokenizer.Token token : MessageSearchTokenizer.tokenize(task.content())) {
+                positions.computeIfAbsent(token.term(), t -> new ArrayList<>()).add(token.position());
+            }
+            Timestamp sentAt = Timestamp.valueOf(task.sentAt());
+            positions.forEach((term, termPositions) -> {
+                String encoded = encodePositions(termPositions);
+                for (Long userId : List.of(membership.participant1().id(), membership.participant2().id())) {
+                    rows.add(new Object[]{userId, term, task.messageId(), task.conversationId(), sentAt,
+                            termPositions.size(), encoded});
+                }
+            });
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private void backfill() {
+        long last = 0L;
+        try {
+            jdbcTemplate.update("INSERT IGNORE INTO message_search_state (name, last_message_id) VALUES ('backfill', 0)");
+            Long watermark = jdbcTemplate.queryForObject(
+                    "SELECT last_message_id FROM message_search_state WHERE name = 'backfill'", Long.class);
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM messages", Long.class);
+            last = watermark != null ? watermark : 0L;
+            long end = maxId != null ? maxId : 0L;
+            int indexed = 0;
+            while (running && last < end) {
+                List<IndexTask> chunk = jdbcTemplate.query(
+                        "SELECT id, conversation_id, content, sent_at FROM messages WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new IndexTask(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                                rs.getTimestamp(4).toLocalDateTime()),
+                        last, end, batchSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                writePostings(chunk);
+                last = chunk.get(chunk.size() - 1).messageId();
+                jdbcTemplate.update("UPDATE message_search_state SET last_message_id = ? WHERE name = 'backfill'", last);
+                indexed += chunk.size();
+            }
+            if (indexed > 0) {
+                log.info("Backfilled search index with {} messages", indexed);
+            }
+        } catch (Exception e) {
+            markMissed(last + 1);
+            log.warn("Search index backfill stopped, continuing from message {} in catch-up: {}",
+                    last + 1, e.getMessage(), e);
+        }
+    }
+
+    private Map<Long, Posting> loadPostings(Long userId, QueryTerm term, Long conversationId) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT message_id, conversation_id, sent_at, term_frequency, positions FROM message_search_postings WHERE user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        if (term.prefix()) {
+            sql.append(" AND term LIKE ?");
+            params.add(term.term().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        } else {
+            sql.append(" AND term = ?");
+            params.add(term.term());
+        }
+        if (conversationId != null) {
+            sql.append(" AND conversation_id = ?");
+            params.add(conversationId);
+        }
+        sql.append(" LIMIT ?");
+        params.add(maxPostingsPerTerm);
+
+        Map<Long, Posting> result = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Posting posting = new Posting(rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(),
+                    rs.getInt(4), decodePositions(rs.getString(5)));
+            // A prefix can match several terms of one message: merge them
+            result.merge(rs.getLong(1), posting, (a, b) -> new Posting(a.conversationId(), a.sentAt(),
+                    a.termFrequency() + b.termFrequency(), mergePositions(a.positions(), b.positions())));
+        }, params.toArray());
+        return result;
+    }
+
+    private Map<Long, Double> matchClause(List<QueryTerm> clause, Map<QueryTerm, Map<Long, Posting>> postings,
+                                          int maxDf, Map<Long, Posting> anyPosting) {
+        List<Map<Long, Posting>> lists = clause.stream()
+                .map(term -> postings.get(new QueryTerm(term.term(), 0, term.prefix())))
+                .toList();
+        // Drive the intersection from the rarest term
+        Map<Long, Posting> rarest = lists.stream().min(Comparator.comparingInt(Map::size)).orElse(Map.of());
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long messageId : rarest.keySet()) {
+            boolean all = lists.stream().allMatch(list -> list.containsKey(messageId));
+            if (!all || (clause.size() > 1 && !isPhraseMatch(clause, lists, messageId))) {
+                continue;
+            }
+            double score = 0;
+            for (Map<Long, Posting> list : lists) {
+                Posting posting = list.get(messageId);
+                double idf = 1 + Math.log(1 + (double) maxDf / list.size());
+                score += (1 + Math.log(posting.termFrequency())) * idf;
+            }
+            scores.put(messageId, score);
+            anyPosting.putIfAbsent(messageId, lists.get(0).get(messageId));
+        }
+        return scores;
+    }
+
+    private boolean isPhraseMatch(List<QueryTerm> clause, List<Map<Long, Posting>> lists, Long messageId) {
+        int[] firstPositions = lists.get(0).get(messageId).positions();
+        for (int start : firstPositions) {
+            int base = start - clause.get(0).offset();
+            boolean match = true;
+            for (int i = 1; i < clause.size() && match; i++) {
+                int[] positions = lists.get(i).get(messageId).positions();
+                match = Arrays.binarySearch(positions, base + clause.get(i).offset()) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<List<QueryTerm>> parseQuery(String query) {
+        List<List<QueryTerm>> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        Matcher matcher = QUERY_PART.matcher(query);
+        while (matcher.find()) {
+            boolean quoted = matcher.group(1) != null;
+            String text = quoted ? matcher.group(1) : matcher.group(2);
+            boolean prefix = !quoted && text.endsWith("*");
+            List<MessageSearchTokenizer.Token> tokens = MessageSearchTokenizer.tokenize(prefix ? text.substring(0, text.length() - 1) : text);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            List<QueryTerm> clause = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                // Only the last token of a bare word can be a prefix
+                clause.add(new QueryTerm(tokens.get(i).term(), tokens.get(i).position(), prefix && i == tokens.size() - 1));
+            }
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    private static String encodePositions(List<Integer> positions) {
+        StringBuilder encoded = new StringBuilder();
+        for (Integer position : positions) {
+            String next = (encoded.length() == 0 ? "" : ",") + position;
+            if (encoded.length() + next.length() > MAX_POSITIONS_LENGTH) {
+                break;
+            }
+            encoded.append(next);
+        }
+        return encoded.toString();
+    }
+
+    private static int[] decodePositions(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return new int[0];
+        }
+        return Arrays.stream(encoded.split(",")).mapToInt(Integer::parseInt).sorted().toArray();
+    }
+
+    private static int[] mergePositions(int[] a, int[] b) {
+        TreeSet<Integer> merged = new TreeSet<>();
+        Arrays.stream(a).forEach(merged::add);
+        Arrays.stream(b).forEach(merged::add);
+        return merged.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
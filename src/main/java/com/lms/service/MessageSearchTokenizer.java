@@ -0,0 +1,87 @@
+package com.lms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Handles tokenization of message content and search queries for the message search index.
+ * Text is lower-cased and split on anything that is not a letter or digit; very short
+ * tokens and common English stop words are dropped, but positions are counted over all
+ * tokens so phrase matching stays exact.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public final class MessageSearchTokenizer {
+
+    /**
+     * Longest indexed term; longer tokens are truncated
+     */
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    /**
+     * A token and its position in the text.
+     *
+     * @param term the normalized term
+     * @param position the zero-based token position
+     */
+    public record Token(String term, int position) {
+    }
+
+    private MessageSearchTokenizer() {
+    }
+
+    /**
+     * Splits text into indexable tokens.
+     *
+     * @param text the text, may be null
+     * @return the tokens in order
+     */
+    public static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int position = 0;
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = normalize(lower.substring(start, i));
+                if (term != null) {
+                    tokens.add(new Token(term, position));
+                }
+                position++;
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalizes a single word the same way indexed tokens are.
+     *
+     * @param word the word
+     * @return the term, or null if it is not indexed
+     */
+    public static String normalize(String word) {
+        String term = word.toLowerCase(Locale.ROOT);
+        if (STOP_WORDS.contains(term)) {
+            return null;
+        }
+        if (term.length() < 2 && !Character.isDigit(term.charAt(0))) {
+            return null;
+        }
+        return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+    }
+}
@@ -0,0 +1,401 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.domain.Conversation;
+import com.lms.domain.Message;
+import com.lms.domain.UserAccount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles the high-throughput chat send path. A message is validated against the cached
+ * conversation membership, given an ID from a pre-reserved block, appended to the local
+ * journal and pushed to subscribers straight away; a single writer thread then persists
+ * queued messages in JDBC batches, coalescing the conversation {@code lastMessageAt}
+ * updates and unread counter adjustments per conversation. Journal segments are deleted
+ * only after their batch commits and are replayed on startup, so an accepted message
+ * survives a crash; messages the database rejects are moved to a dead-letter file instead of
+ * blocking the queue. Enabled with {@code app.messaging.write-behind.enabled=true}, which
+ * must be set on every node since all message inserts then draw IDs from the allocator.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@Order(4)
+@ConditionalOnProperty(name = "app.messaging.write-behind.enabled", havingValue = "true")
+public class MessageWriteBehindService implements ApplicationRunner, DisposableBean {
+
+    private static final String INSERT_SQL = "INSERT INTO messages "
+            + "(id, conversation_id, sender_id, content, sent_at, is_read, attachment_url, attachment_name) "
+            + "VALUES (?, ?, ?, ?, ?, false, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+
+    private static final int MAX_CONTENT_LENGTH = 5000;
+    private static final int MAX_ATTACHMENT_LENGTH = 255;
+
+    private static final String LAST_MESSAGE_SQL = "UPDATE conversations SET last_message_at = ? "
+            + "WHERE id = ? AND (last_message_at IS NULL OR last_message_at < ?)";
+
+    private final ConversationMembershipCache membershipCache;
+    private final RealtimeDeliveryService realtimeDeliveryService;
+    private final UnreadCounterService unreadCounterService;
+    private final ConversationSummaryService conversationSummaryService;
+    private final MessageSearchService messageSearchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final ObjectMapper objectMapper;
+    private final MessageIdAllocator idAllocator;
+    private final MessageJournal journal;
+
+    /**
+     * Guards the pending queue and the journal so segments line up with drained batches
+     */
+    private final Object lock = new Object();
+    private final ArrayDeque<PendingMessage> pending = new ArrayDeque<>();
+
+    /**
+     * Writer-thread state: a failed batch and the sealed segments it came from
+     */
+    private final List<PendingMessage> retry = new ArrayList<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    /**
+     * Size of the outstanding batch, counted against {@code maxPending} by senders
+     */
+    private volatile int outstanding;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "message-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final int maxPending;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+    private final Counter deadLettered;
+
+    public MessageWriteBehindService(ConversationMembershipCache membershipCache,
+                                     RealtimeDeliveryService realtimeDeliveryService,
+                                     UnreadCounterService unreadCounterService,
+                                     ConversationSummaryService conversationSummaryService,
+                                     MessageSearchService messageSearchService,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.messaging.write-behind.flush-interval:PT0.05S}") Duration flushInterval,
+                                     @Value("${app.messaging.write-behind.batch-size:500}") int batchSize,
+                                     @Value("${app.messaging.write-behind.max-pending:20000}") int maxPending,
+                                     @Value("${app.messaging.write-behind.id-block-size:200}") int idBlockSize,
+                                     @Value("${app.messaging.write-behind.journal-dir:data/message-journal}") String journalDir,
+                                     @Value("${app.messaging.write-behind.journal-fsync:false}") boolean journalFsync) {
+        this.membershipCache = membershipCache;
+        this.realtimeDeliveryService = realtimeDeliveryService;
+        this.unreadCounterService = unreadCounterService;
+        this.conversationSummaryService = conversationSummaryService;
+        this.messageSearchService = messageSearchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.idAllocator = new MessageIdAllocator("messages", jdbcTemplate, transactionManager, idBlockSize);
+        this.journal = new MessageJournal(Path.of(journalDir), journalFsync);
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+
+        Gauge.builder("messaging.writebehind.pending", pending, queue -> {
+                    synchronized (lock) {
+                        return queue.size() + outstanding;
+                    }
+                })
+                .description("Chat messages accepted but not yet persisted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("messaging.writebehind.flush")
+                .description("Time to persist one batch of chat messages")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("messaging.writebehind.flush.failures")
+                .description("Failed chat message batch writes, retried on the next flush")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("messaging.writebehind.dead.letter")
+                .description("Chat messages the database rejected, moved to the journal's dead-letter file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays journal segments left by a previous run, then starts the writer.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Path> recovered = journal.getRecoveredSegments();
+        if (!recovered.isEmpty()) {
+            List<PendingMessage> replay = new ArrayList<>();
+            for (Path segment : recovered) {
+                for (String line : journal.readLines(segment)) {
+                    replay.add(objectMapper.readValue(line, PendingMessage.class));
+                }
+            }
+            int inserted = writeOrIsolate(replay);
+            journal.delete(recovered);
+            log.info("Replayed message journal: {} of {} messages were missing and have been inserted",
+                    inserted, replay.size());
+        }
+        long intervalMs = Math.max(1, flushInterval.toMillis());
+        writer.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Write-behind chat persistence enabled (flush every {} ms)", intervalMs);
+    }
+
+    /**
+     * Accepts a message: validates membership, assigns its ID, journals it and pushes it to
+     * subscribers. The message is persisted by the writer shortly after.
+     *
+     * @return the accepted message (not attached to a persistence context)
+     */
+    public Message send(Long conversationId, Long senderId, String content, String attachmentUrl, String attachmentName) {
+        ConversationMembershipCache.Membership membership = membershipCache.get(conversationId);
+        if (!membership.isParticipant(senderId)) {
+            throw new RuntimeException("User is not a participant in this conversation");
+        }
+        if (content != null && content.length() > MAX_CONTENT_LENGTH) {
+            throw new RuntimeException("Message content must be at most " + MAX_CONTENT_LENGTH + " characters");
+        }
+        if ((attachmentUrl != null && attachmentUrl.length() > MAX_ATTACHMENT_LENGTH)
+                || (attachmentName != null && attachmentName.length() > MAX_ATTACHMENT_LENGTH)) {
+            throw new RuntimeException("Attachment URL and name must be at most " + MAX_ATTACHMENT_LENGTH + " characters");
+        }
+        ConversationMembershipCache.Participant sender = membership.participant(senderId);
+        Long recipientId = membership.otherParticipant(senderId).id();
+
+        boolean hasAttachment = attachmentUrl != null && !attachmentUrl.isEmpty();
+        PendingMessage pendingMessage = new PendingMessage(idAllocator.nextId(), conversationId, senderId, recipientId,
+                content != null ? content : "", LocalDateTime.now(),
+                hasAttachment ? attachmentUrl : null, hasAttachment ? attachmentName : null);
+        byte[] record;
+        try {
+            record = objectMapper.writeValueAsBytes(pendingMessage);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize message", e);
+        }
+
+        synchronized (lock) {
+            // A batch failing to persist holds back everything behind it, so it counts too
+            if (pending.size() + outstanding >= maxPending) {
+                throw new RuntimeException("Messaging is busy, please retry shortly");
+            }
+            journal.append(record);
+            pending.add(pendingMessage);
+        }
+
+        Message message = toMessage(pendingMessage, sender);
+        realtimeDeliveryService.send("/queue/messages/" + recipientId, message);
+        realtimeDeliveryService.send("/topic/conversation/" + conversationId, message);
+        return message;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+        // Persist what is left; anything that still fails stays in the journal for replay
+        boolean persisted = flush();
+        while (persisted && hasPending()) {
+            persisted = flush();
+        }
+        journal.close();
+    }
+
+    /**
+     * Writes the outstanding batch, or drains the queue into a new one. A failed batch is
+     * retried on its own before anything newer is drained, so it never grows.
+     *
+     * @return false if the write failed
+     */
+    private boolean flush() {
+        synchronized (lock) {
+            if (retry.isEmpty() && !pending.isEmpty()) {
+                retry.addAll(pending);
+                pending.clear();
+                sealedSegments.add(journal.seal());
+                outstanding = retry.size();
+            }
+        }
+        if (retry.isEmpty()) {
+            return true;
+        }
+        try {
+            flushTimer.record(() -> {
+                writeOrIsolate(retry);
+            });
+            journal.delete(sealedSegments);
+            sealedSegments.clear();
+            retry.clear();
+            outstanding = 0;
+            return true;
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.error("Failed to persist {} chat messages, will retry: {}", retry.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean hasPending() {
+        synchronized (lock) {
+            return !pending.isEmpty();
+        }
+    }
+
+    /**
+     * Writes a batch; when the database rejects it outright (a constraint the message
+     * violates, e.g. its conversation was deleted in the meantime) the messages are written
+     * one by one and the rejected ones are dead-lettered so they cannot block the queue.
+     * Other failures, such as a lost connection, propagate and the batch is retried.
+     *
+     * @return the number of inserted messages
+     */
+    private int writeOrIsolate(List<PendingMessage> batch) {
+        try {
+            return write(batch);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Chat message batch of {} was rejected, writing messages individually: {}",
+                    batch.size(), e.getMessage());
+        }
+        int inserted = 0;
+        for (PendingMessage m : batch) {
+            try {
+                inserted += write(List.of(m));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(m, e);
+            }
+        }
+        return inserted;
+    }
+
+    private void deadLetter(PendingMessage m, Exception cause) {
+        deadLettered.increment();
+        log.error("Chat message {} in conversation {} was rejected by the database and dead-lettered: {}",
+                m.id(), m.conversationId(), cause.getMessage());
+        try {
+            journal.appendDeadLetter(objectMapper.writeValueAsBytes(m));
+        } catch (Exception e) {
+            log.error("Failed to dead-letter chat message {}: {}", m.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts a batch in one transaction and applies the coalesced side effects of the
+     * rows that were actually inserted. Messages whose ID already exists (journal replay)
+     * are found up front rather than from the driver's update counts, which are not
+     * reliable per row once batches are rewritten.
+     *
+     * @return the number of inserted messages
+     */
+    private int write(List<PendingMessage> batch) {
+        Integer inserted = writeTransaction.execute(status -> {
+            Set<Long> existing = existingIds(batch);
+            List<PendingMessage> fresh = batch.stream().filter(m -> !existing.contains(m.id())).toList();
+            jdbcTemplate.batchUpdate(INSERT_SQL, fresh, batchSize, (ps, m) -> {
+                ps.setLong(1, m.id());
+                ps.setLong(2, m.conversationId());
+                ps.setLong(3, m.senderId());
+                ps.setString(4, m.content());
+                ps.setTimestamp(5, Timestamp.valueOf(m.sentAt()));
+                ps.setString(6, m.attachmentUrl());
+                ps.setString(7, m.attachmentName());
+            });
+
+            Map<Long, PendingMessage> lastMessages = new LinkedHashMap<>();
+            Map<List<Long>, Long> unread = new HashMap<>();
+            for (PendingMessage m : fresh) {
+                lastMessages.merge(m.conversationId(), m, (a, b) -> a.sentAt().isAfter(b.sentAt()) ? a : b);
+                unread.merge(List.of(m.conversationId(), m.recipientId()), 1L, Long::sum);
+                messageSearchService.indexAfterCommit(m.id(), m.conversationId(), m.content(), m.sentAt());
+            }
+
+            jdbcTemplate.batchUpdate(LAST_MESSAGE_SQL, new ArrayList<>(lastMessages.values()), batchSize,
+                    (ps, m) -> {
+                        Timestamp at = Timestamp.valueOf(m.sentAt());
+                        ps.setTimestamp(1, at);
+                        ps.setLong(2, m.conversationId());
+                        ps.setTimestamp(3, at);
+                    });
+            lastMessages.values().forEach(m -> conversationSummaryService.messagePosted(
+                    m.conversationId(), m.senderId(), m.content(), m.attachmentName(), m.sentAt()));
+            unread.forEach((key, messages) -> {
+                Long conversationId = key.get(0);
+                Long recipientId = key.get(1);
+                boolean firstParticipant = membershipCache.get(conversationId).isFirstParticipant(recipientId);
+                unreadCounterService.messagesSent(conversationId, firstParticipant, recipientId, messages);
+            });
+            return fresh.size();
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    private Set<Long> existingIds(List<PendingMessage> batch) {
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<PendingMessage> chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            existing.addAll(jdbcTemplate.queryForList("SELECT id FROM messages WHERE id IN (" + placeholders + ")",
+                    Long.class, chunk.stream().map(PendingMessage::id).toArray()));
+        }
+        return existing;
+    }
+
+    private Message toMessage(PendingMessage pendingMessage, ConversationMembershipCache.Participant sender) {
+        Conversation conversation = new Conversation();
+        conversation.setId(pendingMessage.conversationId());
+        conversation.setCreatedAt(null);
+
+        UserAccount senderAccount = new UserAccount();
+        senderAccount.setId(sender.id());
+        senderAccount.setName(sender.name());
+        senderAccount.setEmail(sender.email());
+        senderAccount.setUserType(sender.userType());
+
+        Message message = new Message();
+        message.setId(pendingMessage.id());
+        message.setConversation(conversation);
+        message.setSender(senderAccount);
+        message.setContent(pendingMessage.content());
+        message.setSentAt(pendingMessage.sentAt());
+        message.setIsRead(false);
+        message.setAttachmentUrl(pendingMessage.attachmentUrl());
+        message.setAttachmentName(pendingMessage.attachmentName());
+        return message;
+    }
+}
@@ -8,13 +8,20 @@ import com.lms.repository.ConversationRepository;
 import com.lms.repository.CourseRepository;
 import com.lms.repository.MessageRepository;
 import com.lms.repository.UserAccountRepository;
+import com.lms.security.CurrentUserContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,7 +46,55 @@ public class MessagingService {
     private CourseRepository courseRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private CurrentUserContext currentUserContext;
+
+    @Autowired
+    private RealtimeDeliveryService realtimeDeliveryService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Present only when app.messaging.write-behind.enabled=true
+    @Autowired
+    private ObjectProvider<MessageWriteBehindService> writeBehindProvider;
+
+    /**
+     * Default number of messages per history page
+     */
+    @Value("${app.messaging.history.page-size:50}")
+    private int defaultPageSize;
+
+    /**
+     * Upper bound on the requested history page size
+     */
+    @Value("${app.messaging.history.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Number of newest messages returned by the unpaginated history endpoint
+     */
+    @Value("${app.messaging.history.legacy-limit:1000}")
+    private int legacyLimit;
+
+    /**
+     * A page of conversation history in chronological order.
+     *
+     * @param messages the messages, oldest first
+     * @param hasMore whether more messages exist beyond this page in the paging direction
+     * @param oldestId the ID of the oldest message on the page (cursor for older pages), or null
+     * @param newestId the ID of the newest message on the page (cursor for newer pages), or null
+     */
+    public record MessagePage(List<Message> messages, boolean hasMore, Long oldestId, Long newestId) {
+    }
 
     /**
      * Get or create a conversation between two users
@@ -104,6 +159,7 @@ public class MessagingService {
             log.debug("Saving conversation...");
             Conversation saved = conversationRepository.saveAndFlush(conversation);
             log.info("Conversation saved successfully with ID: {}", saved.getId());
+            conversationSummaryService.conversationCreated(saved);
             
             // Explicitly load course if present to avoid lazy loading issues
             if (saved.getCourse() != null && saved.getCourse().getId() != null) {
@@ -124,14 +180,23 @@ public class MessagingService {
     }
 
     /**
-     * Send a message in a conversation
+     * Send a message in a conversation. With write-behind enabled the message is pushed
+     * immediately and persisted in the next batch; otherwise it is saved synchronously.
      */
-    @Transactional
     public Message sendMessage(Long conversationId, Long senderId, String content, String attachmentUrl, String attachmentName) {
+        MessageWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            return writeBehind.send(conversationId, senderId, content, attachmentUrl, attachmentName);
+        }
+        return new TransactionTemplate(transactionManager).execute(status ->
+                saveMessage(conversationId, senderId, content, attachmentUrl, attachmentName));
+    }
+
+    private Message saveMessage(Long conversationId, Long senderId, String content, String attachmentUrl, String attachmentName) {
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new RuntimeException("Conversation not found"));
 
-        UserAccount sender = userAccountRepository.findById(senderId)
+        UserAccount sender = currentUserContext.findUser(senderId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify sender is a participant
@@ -163,35 +228,93 @@ public class MessagingService {
         // Update conversation's last message time
         conversation.setLastMessageAt(LocalDateTime.now());
         conversationRepository.save(conversation);
+        conversationSummaryService.messagePosted(conversationId, senderId, savedMessage.getContent(),
+                savedMessage.getAttachmentName(), savedMessage.getSentAt());
+        messageSearchService.indexAfterCommit(savedMessage.getId(), conversationId,
+                savedMessage.getContent(), savedMessage.getSentAt());
 
         // Send real-time notification to the other participant
         Long recipientId = conversation.getParticipant1().getId().equals(senderId) ?
                 conversation.getParticipant2().getId() : conversation.getParticipant1().getId();
+        unreadCounterService.messageSent(conversation, recipientId);
         
-        messagingTemplate.convertAndSend("/queue/messages/" + recipientId, savedMessage);
-        messagingTemplate.convertAndSend("/topic/conversation/" + conversationId, savedMessage);
+        realtimeDeliveryService.send("/queue/messages/" + recipientId, savedMessage);
+        realtimeDeliveryService.send("/topic/conversation/" + conversationId, savedMessage);
 
         log.info("Message sent from user {} to conversation {}", senderId, conversationId);
         return savedMessage;
     }
 
     /**
-     * Get all messages in a conversation
+     * Get the messages in a conversation, oldest first. Bounded to the newest
+     * {@code app.messaging.history.legacy-limit} messages; use
+     * {@link #getConversationMessagesPage} to page through longer histories.
      */
     public List<Message> getConversationMessages(Long conversationId) {
         log.debug("Loading messages for conversation: {}", conversationId);
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-        List<Message> messages = messageRepository.findByConversationOrderBySentAtAsc(conversation);
+        if (!conversationRepository.existsById(conversationId)) {
+            throw new RuntimeException("Conversation not found");
+        }
+        List<Message> messages = new ArrayList<>(
+                messageRepository.findLatestInConversation(conversationId, PageRequest.of(0, legacyLimit)));
+        Collections.reverse(messages);
         log.info("Loaded {} messages for conversation {}", messages.size(), conversationId);
         return messages;
     }
 
+    /**
+     * Get one page of a conversation's history using a keyset cursor on (sentAt, id),
+     * so the cost is independent of how long the conversation is. Without a cursor the
+     * newest page is returned; {@code beforeId} pages towards older messages and
+     * {@code afterId} towards newer ones.
+     *
+     * @param conversationId the conversation ID
+     * @param beforeId return messages older than this message, or null
+     * @param afterId return messages newer than this message, or null
+     * @param size the page size, or null for the default
+     * @return the page, oldest message first
+     */
+    public MessagePage getConversationMessagesPage(Long conversationId, Long beforeId, Long afterId, Integer size) {
+        if (beforeId != null && afterId != null) {
+            throw new RuntimeException("Only one of before and after may be given");
+        }
+        if (!conversationRepository.existsById(conversationId)) {
+            throw new RuntimeException("Conversation not found");
+        }
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Message> rows;
+        boolean newestFirst = true;
+        if (beforeId != null) {
+            LocalDateTime cursor = messageRepository.findSentAtInConversation(conversationId, beforeId)
+                    .orElseThrow(() -> new RuntimeException("Message not found in conversation: " + beforeId));
+            rows = messageRepository.findInConversationBefore(conversationId, cursor, beforeId, limit);
+        } else if (afterId != null) {
+            LocalDateTime cursor = messageRepository.findSentAtInConversation(conversationId, afterId)
+                    .orElseThrow(() -> new RuntimeException("Message not found in conversation: " + afterId));
+            rows = messageRepository.findInConversationAfter(conversationId, cursor, afterId, limit);
+            newestFirst = false;
+        } else {
+            rows = messageRepository.findLatestInConversation(conversationId, limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Message> messages = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (newestFirst) {
+            Collections.reverse(messages);
+        }
+        Long oldestId = messages.isEmpty() ? null : messages.get(0).getId();
+        Long newestId = messages.isEmpty() ? null : messages.get(messages.size() - 1).getId();
+        return new MessagePage(messages, hasMore, oldestId, newestId);
+    }
+
     /**
      * Get all conversations for a user
      */
     public List<Conversation> getUserConversations(Long userId) {
-        UserAccount user = userAccountRepository.findById(userId)
+        UserAccount user = currentUserContext.findUser(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return conversationRepository.findConversationsByUser(user);
     }
@@ -207,34 +330,26 @@ public class MessagingService {
         UserAccount user = userAccountRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        messageRepository.markMessagesAsRead(conversation, user);
-        log.info("Messages marked as read for conversation {} by user {}", conversationId, userId);
+        int marked = messageRepository.markMessagesAsRead(conversation, user);
+        unreadCounterService.messagesRead(conversation, userId, marked);
+        log.info("{} messages marked as read for conversation {} by user {}", marked, conversationId, userId);
     }
 
     /**
-     * Get unread message count for a user
+     * Get unread message count for a user from the maintained counter
      */
     public Long getUnreadCount(Long userId) {
-        UserAccount user = userAccountRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Conversation> conversations = conversationRepository.findConversationsByUser(user);
-        long totalUnread = 0;
-        
-        for (Conversation conv : conversations) {
-            totalUnread += messageRepository.countUnreadMessages(conv, user);
-        }
-        
-        return totalUnread;
+        return unreadCounterService.getTotalUnread(userId);
     }
 
     /**
-     * Search messages in a conversation
+     * Search messages in one of the user's conversations using the search index,
+     * newest first. Only the user's own conversations can produce hits.
      */
-    public List<Message> searchMessages(Long conversationId, String keyword) {
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-        return messageRepository.searchMessages(conversation, keyword);
+    public List<Message> searchMessages(Long conversationId, Long userId, String keyword) {
+        List<Message> messages = new ArrayList<>(messageSearchService.searchAll(userId, keyword, conversationId));
+        messages.sort((a, b) -> b.getSentAt().compareTo(a.getSentAt()));
+        return messages;
     }
 }
 
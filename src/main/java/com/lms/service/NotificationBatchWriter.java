@@ -0,0 +1,197 @@
+package com.lms.service;
+
+import com.lms.domain.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles bulk creation of notifications. A fan-out to many recipients is handed to a
+ * background writer once the caller's transaction commits, and written with multi-row
+ * inserts straight from the recipient IDs, without loading any user entities.
+ * The request that triggered the fan-out only pays for queueing it. Each recipient is
+ * pushed the new notification once its batch is written.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class NotificationBatchWriter implements DisposableBean {
+
+    private static final String INSERT_SQL = "INSERT INTO notifications "
+            + "(user_id, title, message, type, is_read, action_url, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 7;
+
+    /**
+     * One notification addressed to a set of recipients
+     */
+    private record NotificationBatch(List<Long> userIds, String title, String message,
+                                     Notification.NotificationType type, String actionUrl, LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationPushService notificationPushService;
+    private final int batchSize;
+    private final ThreadPoolExecutor writer;
+    private final Counter writtenCounter;
+    private final Counter failureCounter;
+    private final Timer writeTimer;
+
+    public NotificationBatchWriter(JdbcTemplate jdbcTemplate,
+                                   NotificationPushService notificationPushService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.notifications.bulk.batch-size:500}") int batchSize,
+                                   @Value("${app.notifications.bulk.queue-capacity:1000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationPushService = notificationPushService;
+        this.batchSize = batchSize;
+        // When the queue is full the submitting thread writes the batch itself, which throttles producers
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "notification-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.writtenCounter = Counter.builder("notifications.bulk.written")
+                .description("Notifications written by bulk fan-out")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("notifications.bulk.failures")
+                .description("Bulk notification fan-outs that failed to write")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("notifications.bulk.write")
+                .description("Time to write one bulk notification fan-out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues one notification for each recipient, to be written once the current
+     * transaction commits (or immediately when there is none). Duplicate and null IDs are ignored.
+     *
+     * @param userIds the recipient user IDs
+     * @param title the notification title
+     * @param message the notification message
+     * @param type the notification type
+     * @param actionUrl the URL to open from the notification
+     * @return the number of notifications queued
+     */
+    public int submitAfterCommit(Collection<Long> userIds, String title, String message,
+                                 Notification.NotificationType type, String actionUrl) {
+        List<Long> recipients = new ArrayList<>(new LinkedHashSet<>(userIds));
+        recipients.removeIf(Objects::isNull);
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        NotificationBatch batch = new NotificationBatch(recipients, truncate(title, 200), truncate(message, 1000),
+                type != null ? type : Notification.NotificationType.INFO, actionUrl, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writer.execute(() -> write(batch));
+                }
+            });
+        } else {
+            writer.execute(() -> write(batch));
+        }
+        return recipients.size();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification writer did not drain {} pending fan-outs before shutdown", writer.getQueue().size());
+        }
+    }
+
+    private void write(NotificationBatch batch) {
+        try {
+            writeTimer.record(() -> {
+                List<Long> userIds = batch.userIds();
+                for (int from = 0; from < userIds.size(); from += batchSize) {
+                    List<Long> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+                    List<Map<String, Object>> keys = insertChunk(batch, chunk);
+                    pushChunk(batch, chunk, keys);
+                }
+            });
+            writtenCounter.increment(batch.userIds().size());
+            log.debug("Wrote {} '{}' notifications", batch.userIds().size(), batch.title());
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to write {} '{}' notifications: {}", batch.userIds().size(), batch.title(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts a chunk as one multi-row statement. The statement is built here rather than
+     * by the driver's batch rewriting, which is left off so that batch update counts stay
+     * exact for every other caller.
+     */
+    private List<Map<String, Object>> insertChunk(NotificationBatch batch, List<Long> chunk) {
+        Timestamp createdAt = Timestamp.valueOf(batch.createdAt());
+        String sql = INSERT_SQL + String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDERS));
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < chunk.size(); i++) {
+                int offset = i * COLUMNS;
+                ps.setLong(offset + 1, chunk.get(i));
+                ps.setString(offset + 2, batch.title());
+                ps.setString(offset + 3, batch.message());
+                ps.setString(offset + 4, batch.type().name());
+                ps.setBoolean(offset + 5, false);
+                ps.setString(offset + 6, batch.actionUrl());
+                ps.setTimestamp(offset + 7, createdAt);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyList();
+    }
+
+    private void pushChunk(NotificationBatch batch, List<Long> chunk, List<Map<String, Object>> keys) {
+        // Keys come back in insert order; without them clients still get the badge update and reload the list
+        boolean haveKeys = keys.size() == chunk.size();
+        for (int i = 0; i < chunk.size(); i++) {
+            Notification notification = new Notification();
+            if (haveKeys && !keys.get(i).isEmpty()) {
+                notification.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+            notification.setTitle(batch.title());
+            notification.setMessage(batch.message());
+            notification.setType(batch.type());
+            notification.setActionUrl(batch.actionUrl());
+            notification.setCreatedAt(batch.createdAt());
+            notification.setIsRead(false);
+            notificationPushService.notificationCreated(chunk.get(i), NotificationService.toMap(notification));
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,328 @@
+package com.lms.service;
+
+import com.lms.domain.Notification;
+import com.lms.domain.UserAccount;
+import com.lms.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles coalescing of notification events. Events are buffered per recipient for a short
+ * window; when the window closes, events of the same group (e.g. announcements of one course)
+ * become a single in-app notification and all of a recipient's email-worthy events become a
+ * single email. A recipient with one event gets exactly what they would have got without the
+ * digest. Identical merged notifications across recipients are written through the bulk
+ * notification writer, and recipients are flushed in batches. Emails are sent on a small
+ * bounded mail pool, so a slow mail server does not hold up the digest thread; when the
+ * pool's queue is full the digest thread sends the email itself, which throttles flushing.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class NotificationDigestService implements DisposableBean {
+
+    /**
+     * One notification event for a set of recipients.
+     *
+     * @param groupKey events with the same key are merged, e.g. announcement:course:12
+     * @param groupLabel the title of a merged notification, e.g. New announcements in 'Java 101'; its
+     *                   message lists the merged events' messages
+     * @param type the notification type
+     * @param title the title of the event on its own
+     * @param message the message of the event on its own
+     * @param actionUrl the URL to open from the notification
+     * @param emailSubject the email subject, or null if the event is not emailed
+     * @param emailText the email text after the greeting, or null if the event is not emailed
+     * @param inApp whether the event creates an in-app notification
+     */
+    public record DigestEvent(String groupKey, String groupLabel, Notification.NotificationType type,
+                              String title, String message, String actionUrl,
+                              String emailSubject, String emailText, boolean inApp) {
+
+        boolean email() {
+            return emailSubject != null && emailText != null;
+        }
+    }
+
+    /**
+     * A notification as written, shared by every recipient whose merged content is identical
+     */
+    private record MergedNotification(String title, String message, Notification.NotificationType type, String actionUrl) {
+    }
+
+    /**
+     * Events buffered for one recipient since the first of them arrived
+     */
+    private static final class PendingDigest {
+        private final long firstEventAt = System.currentTimeMillis();
+        private final List<DigestEvent> events = new ArrayList<>();
+    }
+
+    private final NotificationService notificationService;
+    private final EmailNotificationService emailNotificationService;
+    private final UserAccountRepository userAccountRepository;
+    private final PresenceService presenceService;
+    private final ConcurrentHashMap<Long, PendingDigest> pending = new ConcurrentHashMap<>();
+    private final Counter eventCounter;
+    private final Counter notificationCounter;
+    private final Counter emailCounter;
+
+    private final ThreadPoolExecutor mailPool;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "notification-digest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.notifications.digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.digest.window:PT2M}")
+    private Duration window;
+
+    @Value("${app.notifications.digest.max-events:20}")
+    private int maxEvents;
+
+    @Value("${app.notifications.digest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.digest.skip-email-when-online:false}")
+    private boolean skipEmailWhenOnline;
+
+    public NotificationDigestService(NotificationService notificationService,
+                                     EmailNotificationService emailNotificationService,
+                                     UserAccountRepository userAccountRepository,
+                                     PresenceService presenceService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.notifications.digest.flush-interval:PT5S}") Duration flushInterval,
+                                     @Value("${app.notifications.digest.mail-threads:4}") int mailThreads,
+                                     @Value("${app.notifications.digest.mail-queue-capacity:1000}") int mailQueueCapacity) {
+        this.notificationService = notificationService;
+        this.emailNotificationService = emailNotificationService;
+        this.userAccountRepository = userAccountRepository;
+        this.presenceService = presenceService;
+        int threads = Math.max(1, mailThreads);
+        this.mailPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, mailQueueCapacity)), r -> {
+                    Thread thread = new Thread(r, "digest-mail");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("notifications.digest.mail.queue", mailPool.getQueue(), Collection::size)
+                .description("Digest emails waiting for a mail thread")
+                .register(meterRegistry);
+        Gauge.builder("notifications.digest.pending", pending, Map::size)
+                .description("Recipients with buffered notification events")
+                .register(meterRegistry);
+        this.eventCounter = Counter.builder("notifications.digest.events")
+                .description("Notification events received per recipient")
+                .register(meterRegistry);
+        this.notificationCounter = Counter.builder("notifications.digest.notifications")
+                .description("In-app notifications written after coalescing")
+                .register(meterRegistry);
+        this.emailCounter = Counter.builder("notifications.digest.emails")
+                .description("Emails sent after coalescing")
+                .register(meterRegistry);
+
+        long intervalMs = Math.max(100, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushDue, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers an event for each recipient once the current transaction commits (or
+     * immediately when there is none). With the digest disabled the event is delivered
+     * on the digest thread without waiting for a window.
+     *
+     * @param userIds the recipient user IDs
+     * @param event the event
+     */
+    public void publish(Collection<Long> userIds, DigestEvent event) {
+        List<Long> recipients = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (recipients.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer(recipients, event);
+                }
+            });
+        } else {
+            buffer(recipients, event);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        // Deliver whatever is still buffered rather than dropping it
+        window = Duration.ZERO;
+        flushDue();
+        mailPool.shutdown();
+        if (!mailPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Digest mail pool did not send {} queued emails before shutdown", mailPool.getQueue().size());
+        }
+    }
+
+    private void buffer(List<Long> recipients, DigestEvent event) {
+        if (!enabled) {
+            Map<Long, List<DigestEvent>> batch = new HashMap<>();
+            recipients.forEach(userId -> batch.put(userId, List.of(event)));
+            eventCounter.increment(recipients.size());
+            try {
+                flusher.execute(() -> deliver(batch));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: deliver on the committing thread rather than lose the event
+                deliver(batch);
+            }
+            return;
+        }
+        for (Long userId : recipients) {
+            pending.compute(userId, (id, digest) -> {
+                PendingDigest target = digest != null ? digest : new PendingDigest();
+                target.events.add(event);
+                return target;
+            });
+        }
+        eventCounter.increment(recipients.size());
+    }
+
+    private void flushDue() {
+        try {
+            long cutoff = System.currentTimeMillis() - window.toMillis();
+            Map<Long, List<DigestEvent>> batch = new HashMap<>();
+            Iterator<Map.Entry<Long, PendingDigest>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, PendingDigest> entry = it.next();
+                PendingDigest digest = entry.getValue();
+                if (digest.firstEventAt > cutoff && digest.events.size() < maxEvents) {
+                    continue;
+                }
+                PendingDigest removed = pending.remove(entry.getKey());
+                if (removed != null) {
+                    batch.put(entry.getKey(), removed.events);
+                }
+                if (batch.size() >= batchSize) {
+                    deliver(batch);
+                    batch = new HashMap<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } catch (Exception e) {
+            log.error("Notification digest flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void deliver(Map<Long, List<DigestEvent>> batch) {
+        try {
+            deliverInApp(batch);
+            deliverEmail(batch);
+        } catch (Exception e) {
+            log.error("Notification digest delivery to {} recipients failed: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private void deliverInApp(Map<Long, List<DigestEvent>> batch) {
+        // Recipients of the same events end up with the same merged notification, written as one fan-out
+        Map<MergedNotification, List<Long>> fanOuts = new LinkedHashMap<>();
+        batch.forEach((userId, events) -> {
+            Map<String, List<DigestEvent>> groups = new LinkedHashMap<>();
+            for (DigestEvent event : events) {
+                if (event.inApp()) {
+                    groups.computeIfAbsent(event.groupKey(), key -> new ArrayList<>()).add(event);
+                }
+            }
+            groups.values().forEach(group ->
+                    fanOuts.computeIfAbsent(merge(group), key -> new ArrayList<>()).add(userId));
+        });
+        fanOuts.forEach((notification, userIds) -> {
+            notificationService.createNotifications(userIds, notification.title(), notification.message(),
+                    notification.type(), notification.actionUrl());
+            notificationCounter.increment(userIds.size());
+        });
+    }
+
+    private void deliverEmail(Map<Long, List<DigestEvent>> batch) {
+        Map<Long, List<DigestEvent>> emails = new HashMap<>();
+        batch.forEach((userId, events) -> {
+            List<DigestEvent> emailEvents = events.stream().filter(DigestEvent::email).toList();
+            if (!emailEvents.isEmpty() && !(skipEmailWhenOnline && presenceService.isOnline(userId))) {
+                emails.put(userId, emailEvents);
+            }
+        });
+        if (emails.isEmpty()) {
+            return;
+        }
+        for (UserAccount user : userAccountRepository.findAllById(emails.keySet())) {
+            List<DigestEvent> events = emails.get(user.getId());
+            String subject = events.size() == 1 ? events.get(0).emailSubject() : "You have " + events.size() + " new updates";
+            String text = events.size() == 1 ? events.get(0).emailText() : digestText(events);
+            Runnable send = () -> {
+                if (emailNotificationService.sendDigestEmail(user, subject, text)) {
+                    emailCounter.increment();
+                }
+            };
+            // After shutdown CallerRunsPolicy would silently discard the email, so send it here
+            if (mailPool.isShutdown()) {
+                send.run();
+            } else {
+                mailPool.execute(send);
+            }
+        }
+    }
+
+    private static MergedNotification merge(List<DigestEvent> group) {
+        DigestEvent first = group.get(0);
+        if (group.size() == 1) {
+            return new MergedNotification(first.title(), first.message(), first.type(), first.actionUrl());
+        }
+        StringBuilder message = new StringBuilder();
+        for (DigestEvent event : group) {
+            if (message.length() > 0) {
+                message.append("\n");
+            }
+            message.append("- ").append(event.message() != null ? event.message() : event.title());
+        }
+        return new MergedNotification(first.groupLabel() + " (" + group.size() + ")", message.toString(),
+                first.type(), first.actionUrl());
+    }
+
+    private static String digestText(List<DigestEvent> events) {
+        StringBuilder text = new StringBuilder("Here is what happened in your courses:\n");
+        for (DigestEvent event : events) {
+            text.append("\n").append(event.emailSubject()).append("\n").append(event.emailText()).append("\n");
+        }
+        return text.toString().trim();
+    }
+}
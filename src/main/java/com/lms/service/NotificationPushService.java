@@ -0,0 +1,159 @@
+package com.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Handles real-time notification delivery. Each change to a user's notifications is pushed
+ * to {@code /queue/notifications/{userId}} once committed, together with the change to the
+ * unread count and the count itself when known, so clients keep the badge current without
+ * polling. Each push carries the time its write was made, before the commit, so the unread
+ * counter can tell whether a counter loaded meanwhile already includes it.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class NotificationPushService {
+
+    @Autowired
+    private RealtimeDeliveryService realtimeDeliveryService;
+
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    /**
+     * Pushes a newly created, unread notification.
+     *
+     * @param userId the recipient
+     * @param notification the notification as sent to clients
+     */
+    public void notificationCreated(Long userId, Map<String, Object> notification) {
+        afterCommit(writtenAt -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "CREATED");
+            payload.put("notification", notification);
+            push(userId, payload, 1, writtenAt);
+        });
+    }
+
+    /**
+     * Pushes that one notification was read.
+     *
+     * @param userId the recipient
+     * @param notificationId the notification ID
+     */
+    public void notificationRead(Long userId, Long notificationId) {
+        afterCommit(writtenAt -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "READ");
+            payload.put("notificationId", notificationId);
+            push(userId, payload, -1, writtenAt);
+        });
+    }
+
+    /**
+     * Pushes that several notifications were read by a bulk update.
+     *
+     * @param userId the recipient
+     * @param count the number of notifications that changed
+     */
+    public void notificationsRead(Long userId, long count) {
+        afterCommit(writtenAt -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "READ_BULK");
+            payload.put("count", count);
+            push(userId, payload, -count, writtenAt);
+        });
+    }
+
+    /**
+     * Pushes that all of a user's notifications were read.
+     *
+     * @param userId the recipient
+     * @param count the number of notifications that changed
+     */
+    public void allRead(Long userId, long count) {
+        afterCommit(writtenAt -> {
+            unreadCounter.set(userId, 0);
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "ALL_READ");
+            payload.put("unreadDelta", -count);
+            payload.put("unreadCount", 0L);
+            send(userId, payload);
+        });
+    }
+
+    /**
+     * Pushes that a notification was deleted.
+     *
+     * @param userId the recipient
+     * @param notificationId the notification ID
+     * @param wasUnread whether the deleted notification was still unread
+     */
+    public void notificationDeleted(Long userId, Long notificationId, boolean wasUnread) {
+        afterCommit(writtenAt -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "DELETED");
+            payload.put("notificationId", notificationId);
+            push(userId, payload, wasUnread ? -1 : 0, writtenAt);
+        });
+    }
+
+    /**
+     * Pushes that a user's read notifications were deleted; the unread count is unaffected.
+     *
+     * @param userId the recipient
+     * @param count the number of notifications deleted
+     */
+    public void readDeleted(Long userId, long count) {
+        afterCommit(writtenAt -> {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "READ_DELETED");
+            payload.put("count", count);
+            push(userId, payload, 0, writtenAt);
+        });
+    }
+
+    private void push(Long userId, Map<String, Object> payload, long delta, long writtenAt) {
+        Long unreadCount = delta != 0 ? unreadCounter.adjust(userId, delta, writtenAt) : null;
+        payload.put("unreadDelta", delta);
+        payload.put("unreadCount", unreadCount);
+        send(userId, payload);
+    }
+
+    private void send(Long userId, Map<String, Object> payload) {
+        try {
+            realtimeDeliveryService.send("/queue/notifications/" + userId, payload);
+        } catch (Exception e) {
+            log.warn("Failed to push notification update to user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction commits, passing the time of the write:
+     * now, since the write has been made but not yet committed (or, without a transaction,
+     * has just been committed).
+     */
+    private void afterCommit(LongConsumer action) {
+        long writtenAt = System.currentTimeMillis();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.accept(writtenAt);
+                }
+            });
+        } else {
+            action.accept(writtenAt);
+        }
+    }
+}
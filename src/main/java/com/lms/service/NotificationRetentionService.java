@@ -0,0 +1,170 @@
+package com.lms.service;
+
+import com.lms.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Handles retention of notifications. Read notifications older than the configured age are
+ * deleted, or first copied to {@code notifications_archive} in archive mode, in small
+ * batches that each run in their own short transaction, so the job never holds long locks
+ * on the table that serves every inbox. Unread notifications are never removed. Before
+ * archiving, the archive table is brought in line with the current notifications columns
+ * and rows are copied by column name, so schema updates to notifications do not break it.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    /**
+     * A column as reported by information_schema
+     */
+    private record ColumnInfo(String type, boolean nullable) {
+    }
+
+    private static final String ARCHIVE_TABLE = "notifications_archive";
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter removedCounter;
+
+    @Value("${app.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.retention.read-max-age:P90D}")
+    private Duration readMaxAge;
+
+    @Value("${app.notifications.retention.mode:delete}")
+    private String mode;
+
+    @Value("${app.notifications.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.notifications.retention.batch-pause:PT0.1S}")
+    private Duration batchPause;
+
+    /**
+     * Column list shared by both tables, set once the archive schema has been aligned
+     */
+    private volatile String archiveColumns;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.removedCounter = Counter.builder("notifications.retention.removed")
+                .description("Read notifications removed by the retention job")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Removes expired read notifications. Runs nightly; each run is capped so a large
+     * backlog is worked off over several nights rather than in one long job.
+     */
+    @Scheduled(cron = "${app.notifications.retention.cron:0 30 3 * * ?}")
+    public void purgeExpiredNotifications() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(readMaxAge);
+        boolean archive = "archive".equalsIgnoreCase(mode);
+        if (archive) {
+            ensureArchiveTable();
+        }
+
+        long removed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int count = transactionTemplate.execute(status -> purgeBatch(cutoff, archive));
+            removed += count;
+            removedCounter.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+            pause();
+        }
+        if (removed > 0) {
+            log.info("Notification retention {} {} read notifications created before {}",
+                    archive ? "archived" : "deleted", removed, cutoff);
+        }
+    }
+
+    private int purgeBatch(LocalDateTime cutoff, boolean archive) {
+        List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (archive) {
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            jdbcTemplate.update("INSERT IGNORE INTO " + ARCHIVE_TABLE + " (" + archiveColumns + ") SELECT "
+                    + archiveColumns + " FROM notifications WHERE id IN (" + placeholders + ")", ids.toArray());
+        }
+        return notificationRepository.deleteByIdIn(ids);
+    }
+
+    private void ensureArchiveTable() {
+        if (archiveColumns != null) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE_TABLE + " LIKE notifications");
+        Map<String, ColumnInfo> source = columns("notifications");
+        Map<String, ColumnInfo> archived = columns(ARCHIVE_TABLE);
+        source.forEach((name, column) -> {
+            if (!archived.containsKey(name)) {
+                log.info("Adding column {} to {}", name, ARCHIVE_TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " ADD COLUMN `" + name + "` " + column.type() + " NULL");
+            }
+        });
+        archived.forEach((name, column) -> {
+            // A column dropped from notifications must not reject archived rows that lack it
+            if (!source.containsKey(name) && !column.nullable()) {
+                log.info("Making column {} of {} nullable", name, ARCHIVE_TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " MODIFY COLUMN `" + name + "` " + column.type() + " NULL");
+            }
+        });
+        archiveColumns = source.keySet().stream().map(name -> "`" + name + "`").collect(Collectors.joining(", "));
+    }
+
+    private Map<String, ColumnInfo> columns(String table) {
+        Map<String, ColumnInfo> columns = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT column_name, column_type, is_nullable FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? ORDER BY ordinal_position",
+                rs -> {
+                    columns.put(rs.getString(1), new ColumnInfo(rs.getString(2), "YES".equals(rs.getString(3))));
+                }, table);
+        return columns;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,11 +5,16 @@ import com.lms.domain.UserAccount;
 import com.lms.repository.NotificationRepository;
 import com.lms.repository.UserAccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class NotificationService {
@@ -20,11 +25,73 @@ public class NotificationService {
     @Autowired
     private UserAccountRepository userAccountRepository;
 
+    @Autowired
+    private NotificationBatchWriter notificationBatchWriter;
+
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private NotificationUnreadCounter notificationUnreadCounter;
+
+    @Value("${app.notifications.inbox.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.notifications.inbox.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.notifications.inbox.legacy-limit:200}")
+    private int legacyLimit;
+
+    /**
+     * A page of a user's notifications, newest first.
+     *
+     * @param notifications the notifications on this page
+     * @param hasMore whether older notifications exist
+     * @param nextBefore the createdAt cursor for the next page, or null
+     * @param nextBeforeId the ID cursor for the next page, or null
+     */
+    public record NotificationPage(List<Map<String, Object>> notifications, boolean hasMore,
+                                   LocalDateTime nextBefore, Long nextBeforeId) {
+    }
+
+    /**
+     * Returns the newest {@code app.notifications.inbox.legacy-limit} notifications of a user;
+     * use {@link #getNotificationsPage} to page further back.
+     */
     @Transactional(readOnly = true)
     public List<Notification> getUserNotifications(Long userId) {
-        UserAccount user = userAccountRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user);
+        return notificationRepository.findPage(userId, false, PageRequest.of(0, legacyLimit));
+    }
+
+    /**
+     * Get one page of a user's notifications using a keyset cursor on (createdAt, id), so
+     * the cost does not grow with the number of notifications the user has received.
+     *
+     * @param userId the user ID
+     * @param unreadOnly whether to return unread notifications only
+     * @param before the createdAt of the last notification already loaded, or null for the newest page
+     * @param beforeId the ID of the last notification already loaded, or null for the newest page
+     * @param size the page size, or null for the default
+     * @return the page, newest first
+     */
+    @Transactional(readOnly = true)
+    public NotificationPage getNotificationsPage(Long userId, boolean unreadOnly, LocalDateTime before, Long beforeId, Integer size) {
+        if ((before == null) != (beforeId == null)) {
+            throw new RuntimeException("before and beforeId must be given together");
+        }
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Notification> rows = before == null
+                ? notificationRepository.findPage(userId, unreadOnly, limit)
+                : notificationRepository.findPageBefore(userId, unreadOnly, before, beforeId, limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Notification last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new NotificationPage(page.stream().map(NotificationService::toMap).toList(), hasMore,
+                hasMore ? last.getCreatedAt() : null, hasMore ? last.getId() : null);
     }
 
     @Transactional(readOnly = true)
@@ -34,11 +101,12 @@ public class NotificationService {
         return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Returns the user's unread count from the cached counter; the database is only
+     * queried when the counter is not loaded.
+     */
     public Long getUnreadCount(Long userId) {
-        UserAccount user = userAccountRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.countByUserAndIsReadFalse(user);
+        return notificationUnreadCounter.get(userId);
     }
 
     @Transactional
@@ -55,7 +123,24 @@ public class NotificationService {
         notification.setCreatedAt(LocalDateTime.now());
         notification.setIsRead(false);
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        notificationPushService.notificationCreated(userId, toMap(saved));
+        return saved;
+    }
+
+    /**
+     * Creates the same notification for many recipients. Users are not loaded; the rows are
+     * written in JDBC batches off the calling thread once the current transaction commits.
+     *
+     * @param userIds the recipient user IDs
+     * @param title the notification title
+     * @param message the notification message
+     * @param type the notification type
+     * @param actionUrl the URL to open from the notification
+     * @return the number of notifications queued
+     */
+    public int createNotifications(Collection<Long> userIds, String title, String message, Notification.NotificationType type, String actionUrl) {
+        return notificationBatchWriter.submitAfterCommit(userIds, title, message, type, actionUrl);
     }
 
     @Transactional
@@ -67,23 +152,56 @@ public class NotificationService {
             throw new RuntimeException("User can only mark their own notifications as read");
         }
 
-        notification.setIsRead(true);
-        notification.setReadAt(LocalDateTime.now());
-        notificationRepository.save(notification);
+        // Conditional update, so concurrent requests from several tabs decrement the badge once
+        if (notificationRepository.markRead(notificationId, userId, LocalDateTime.now()) > 0) {
+            notificationPushService.notificationRead(userId, notificationId);
+        }
     }
 
+    /**
+     * Marks all of a user's notifications read with a single UPDATE.
+     *
+     * @param userId the user ID
+     * @return the number of notifications that changed
+     */
     @Transactional
-    public void markAllAsRead(Long userId) {
-        UserAccount user = userAccountRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public int markAllAsRead(Long userId) {
+        return markAllAsRead(userId, null, null);
+    }
 
-        List<Notification> unreadNotifications = notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
-        LocalDateTime now = LocalDateTime.now();
-        for (Notification notification : unreadNotifications) {
-            notification.setIsRead(true);
-            notification.setReadAt(now);
+    /**
+     * Marks a user's unread notifications read with a single UPDATE, optionally only those
+     * of one type and/or created before a timestamp.
+     *
+     * @param userId the user ID
+     * @param type only notifications of this type, or null for all types
+     * @param before only notifications created before this time, or null for all
+     * @return the number of notifications that changed
+     */
+    @Transactional
+    public int markAllAsRead(Long userId, Notification.NotificationType type, LocalDateTime before) {
+        int updated = notificationRepository.markAllRead(userId, type, before, LocalDateTime.now());
+        if (type == null && before == null) {
+            notificationPushService.allRead(userId, updated);
+        } else if (updated > 0) {
+            notificationPushService.notificationsRead(userId, updated);
         }
-        notificationRepository.saveAll(unreadNotifications);
+        return updated;
+    }
+
+    /**
+     * Deletes all of a user's read notifications with a single DELETE.
+     *
+     * @param userId the user ID
+     * @return the number of notifications deleted
+     */
+    @Transactional
+    public int deleteAllRead(Long userId) {
+        int deleted = notificationRepository.deleteAllRead(userId);
+        if (deleted > 0) {
+            notificationPushService.readDeleted(userId, deleted);
+        }
+        return deleted;
     }
 
     @Transactional
@@ -95,7 +213,21 @@ public class NotificationService {
             throw new RuntimeException("User can only delete their own notifications");
         }
 
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
         notificationRepository.delete(notification);
+        notificationPushService.notificationDeleted(userId, notificationId, wasUnread);
     }
-}
 
+    static Map<String, Object> toMap(Notification notification) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", notification.getId());
+        map.put("title", notification.getTitle());
+        map.put("message", notification.getMessage());
+        map.put("type", notification.getType());
+        map.put("isRead", notification.getIsRead());
+        map.put("actionUrl", notification.getActionUrl());
+        map.put("createdAt", notification.getCreatedAt());
+        map.put("readAt", notification.getReadAt());
+        return map;
+    }
+}
@@ -0,0 +1,184 @@
+package com.lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lms.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handles the cached per-user count of unread notifications behind the notification badge.
+ * A count is loaded from the database once and then kept current by deltas as notifications
+ * are created, read and deleted. Counters live in a local cache, or in Redis with
+ * {@code app.notifications.unread-counter.redis.enabled=true} so every node sees the same
+ * value. Deltas only touch counters that are already loaded, and counters expire, so a
+ * missed update corrects itself on the next load.
+ * <p>
+ * A delta is applied after its write commits, so a counter loaded in between already
+ * includes the write and would count it twice. Each counter therefore records when its
+ * load started, and each delta carries the time of its write; a delta for a write that
+ * may be newer than the load (within {@link #LOAD_RACE_MARGIN_MS}, which also absorbs
+ * clock differences between nodes) drops the counter instead, so it is reloaded exactly.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class NotificationUnreadCounter {
+
+    private static final String REDIS_KEY_PREFIX = "lms:notifications:unread:";
+    private static final String REDIS_LOADED_SUFFIX = ":loaded";
+
+    /**
+     * How much older than its load a write must be for its delta to be applied
+     */
+    static final long LOAD_RACE_MARGIN_MS = 2000;
+
+    /**
+     * Adds a delta to an existing counter, never going below zero; returns nil when the counter is
+     * not loaded, and drops it when it was loaded after the write (ARGV[2] is the latest safe load time)
+     */
+    private static final DefaultRedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return nil end "
+                    + "local loaded = tonumber(redis.call('get', KEYS[2]) or '0') "
+                    + "if loaded > tonumber(ARGV[2]) then redis.call('del', KEYS[1], KEYS[2]) return nil end "
+                    + "local value = redis.call('incrby', KEYS[1], ARGV[1]) "
+                    + "if value < 0 then redis.call('set', KEYS[1], 0, 'KEEPTTL') value = 0 end "
+                    + "return value", Long.class);
+
+    private final NotificationRepository notificationRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<Long, LoadedCount> localCounters;
+    private final Duration ttl;
+
+    /**
+     * A counter and the time its load started
+     */
+    private record LoadedCount(AtomicLong value, long loadedAt) {
+    }
+
+    @Value("${app.notifications.unread-counter.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    public NotificationUnreadCounter(NotificationRepository notificationRepository,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     @Value("${app.notifications.unread-counter.ttl:PT30M}") Duration ttl,
+                                     @Value("${app.notifications.unread-counter.max-size:100000}") long maxSize) {
+        this.notificationRepository = notificationRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = ttl;
+        this.localCounters = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns a user's unread notification count, loading it from the database on a miss.
+     *
+     * @param userId the user ID
+     * @return the unread count
+     */
+    public long get(Long userId) {
+        if (redisEnabled) {
+            try {
+                String key = REDIS_KEY_PREFIX + userId;
+                String cached = stringRedisTemplate.opsForValue().get(key);
+                if (cached != null) {
+                    return Long.parseLong(cached);
+                }
+                long loadedAt = System.currentTimeMillis();
+                long count = notificationRepository.countUnreadByUserId(userId);
+                // The load time goes first, so a delta never sees the count without it
+                stringRedisTemplate.opsForValue().set(key + REDIS_LOADED_SUFFIX, Long.toString(loadedAt), ttl);
+                stringRedisTemplate.opsForValue().setIfAbsent(key, Long.toString(count), ttl);
+                return count;
+            } catch (Exception e) {
+                // Not cached locally: local counters would not see deltas applied while in redis mode
+                log.debug("Unread notification counter lookup in Redis failed for user {}: {}", userId, e.getMessage());
+                return notificationRepository.countUnreadByUserId(userId);
+            }
+        }
+        return localCounters.get(userId, id -> {
+            long loadedAt = System.currentTimeMillis();
+            return new LoadedCount(new AtomicLong(notificationRepository.countUnreadByUserId(id)), loadedAt);
+        }).value().get();
+    }
+
+    /**
+     * Applies a delta to a user's counter if it is loaded before the write; a counter
+     * that may already include the write is dropped instead.
+     *
+     * @param userId the user ID
+     * @param delta the amount to add (negative to subtract)
+     * @param writtenAt when the write was made, no later than its commit
+     * @return the new count, or null if the counter is not loaded or was dropped
+     */
+    public Long adjust(Long userId, long delta, long writtenAt) {
+        long latestSafeLoad = writtenAt - LOAD_RACE_MARGIN_MS;
+        if (redisEnabled) {
+            try {
+                String key = REDIS_KEY_PREFIX + userId;
+                return stringRedisTemplate.execute(ADJUST_SCRIPT, List.of(key, key + REDIS_LOADED_SUFFIX),
+                        Long.toString(delta), Long.toString(latestSafeLoad));
+            } catch (Exception e) {
+                log.debug("Unread notification counter update in Redis failed for user {}: {}", userId, e.getMessage());
+                evict(userId);
+                return null;
+            }
+        }
+        LoadedCount counter = localCounters.getIfPresent(userId);
+        if (counter == null) {
+            return null;
+        }
+        if (counter.loadedAt() > latestSafeLoad) {
+            localCounters.asMap().remove(userId, counter);
+            return null;
+        }
+        return counter.value().updateAndGet(value -> Math.max(0, value + delta));
+    }
+
+    /**
+     * Sets a user's counter to a known value, e.g. zero after marking everything read.
+     *
+     * @param userId the user ID
+     * @param value the unread count
+     */
+    public void set(Long userId, long value) {
+        if (redisEnabled) {
+            try {
+                String key = REDIS_KEY_PREFIX + userId;
+                stringRedisTemplate.opsForValue().set(key + REDIS_LOADED_SUFFIX, Long.toString(System.currentTimeMillis()), ttl);
+                stringRedisTemplate.opsForValue().set(key, Long.toString(value), ttl);
+                return;
+            } catch (Exception e) {
+                log.debug("Unread notification counter reset in Redis failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+        localCounters.put(userId, new LoadedCount(new AtomicLong(value), System.currentTimeMillis()));
+    }
+
+    /**
+     * Drops a user's counter so it is reloaded from the database on next use.
+     *
+     * @param userId the user ID
+     */
+    public void evict(Long userId) {
+        localCounters.invalidate(userId);
+        if (redisEnabled) {
+            try {
+                stringRedisTemplate.delete(List.of(REDIS_KEY_PREFIX + userId, REDIS_KEY_PREFIX + userId + REDIS_LOADED_SUFFIX));
+            } catch (Exception e) {
+                log.debug("Unread notification counter eviction in Redis failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.lms.service;
 
 import com.lms.domain.*;
 import com.lms.repository.*;
+import com.lms.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +26,12 @@ public class OrganizationService {
     @Autowired
     private CourseEnrollmentRepository enrollmentRepository;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
     public Optional<Organization> getOrganizationByAdminId(Long adminId) {
         return organizationRepository.findByAdminId(adminId);
     }
@@ -73,6 +80,7 @@ public class OrganizationService {
         if (updateUserType && user.getUserType() != UserAccount.UserType.ORGANIZATION) {
             user.setUserType(UserAccount.UserType.ORGANIZATION);
             userAccountRepository.save(user);
+            principalCache.invalidate(user.getEmail());
         }
         
         Organization organization = new Organization();
@@ -110,6 +118,7 @@ public class OrganizationService {
         if (updateUserType && user.getUserType() != UserAccount.UserType.ORGANIZATION) {
             user.setUserType(UserAccount.UserType.ORGANIZATION);
             userAccountRepository.save(user);
+            principalCache.invalidate(user.getEmail());
         }
         
         organization.setAdmin(user);
@@ -143,6 +152,8 @@ public class OrganizationService {
         
         teacher.setOrganization(organization);
         userAccountRepository.save(teacher);
+        // The organization is embedded in issued tokens
+        principalCache.invalidate(teacher.getEmail());
     }
 
     @Transactional
@@ -156,6 +167,8 @@ public class OrganizationService {
         if (teacher.getOrganization() != null && teacher.getOrganization().getId().equals(organizationId)) {
             teacher.setOrganization(null);
             userAccountRepository.save(teacher);
+            // Revoke the organization claim of issued tokens, so organization-scoped access ends now
+            principalCache.invalidate(teacher.getEmail());
         }
     }
 
@@ -211,6 +224,9 @@ public class OrganizationService {
             }
         }
         
+        if (fixedCount > 0) {
+            catalogVersionService.bump(null);
+        }
         return fixedCount;
     }
 }
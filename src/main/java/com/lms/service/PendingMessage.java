@@ -0,0 +1,29 @@
+package com.lms.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat message accepted by the write-behind path but not yet persisted. This is the
+ * unit written to the local journal and batch-inserted into the messages table.
+ *
+ * @param id the pre-allocated message ID
+ * @param conversationId the conversation ID
+ * @param senderId the sender's user ID
+ * @param recipientId the recipient's user ID
+ * @param content the message content
+ * @param sentAt the time the message was accepted
+ * @param attachmentUrl the attachment URL, or null
+ * @param attachmentName the attachment name, or null
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public record PendingMessage(Long id,
+                             Long conversationId,
+                             Long senderId,
+                             Long recipientId,
+                             String content,
+                             LocalDateTime sentAt,
+                             String attachmentUrl,
+                             String attachmentName) {
+}
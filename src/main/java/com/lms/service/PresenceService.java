@@ -0,0 +1,275 @@
+package com.lms.service;
+
+import com.lms.security.JwtUser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles online presence. STOMP sessions are registered on CONNECT and removed on
+ * DISCONNECT in a registry of concurrent maps striped by user ID (user ID to session
+ * IDs with their last-seen time); every inbound frame, including heartbeats, refreshes
+ * its session, and sessions that go quiet for longer than the TTL are swept, which
+ * covers dropped connections that never send DISCONNECT. A swept session stays known
+ * until it disconnects, so a frame from it after a quiet spell brings it back online.
+ * A user's session set is only changed inside a compute on its shard, so a connect can
+ * never be lost to a concurrent removal of the user's last session. With
+ * {@code app.presence.redis.enabled=true} each node also publishes its online users to
+ * Redis with the same TTL, so presence queries see users connected to any node.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class PresenceService implements DisposableBean {
+
+    private static final String REDIS_KEY_PREFIX = "lms:presence:";
+
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Long>>[] shards;
+    private final ConcurrentHashMap<String, Long> sessionOwners = new ConcurrentHashMap<>();
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long sessionTtlMillis;
+
+    @Value("${app.presence.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "presence-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @SuppressWarnings("unchecked")
+    public PresenceService(StringRedisTemplate stringRedisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.presence.shards:16}") int shardCount,
+                           @Value("${app.presence.session-ttl:PT35S}") Duration sessionTtl,
+                           @Value("${app.presence.sweep-interval:PT10S}") Duration sweepInterval) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.sessionTtlMillis = sessionTtl.toMillis();
+        this.shards = new ConcurrentHashMap[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        Gauge.builder("presence.sessions", sessionOwners, Map::size)
+                .description("STOMP sessions connected to this node")
+                .register(meterRegistry);
+        Gauge.builder("presence.users.online", this, PresenceService::countLocalUsers)
+                .description("Users with at least one session on this node")
+                .register(meterRegistry);
+        long intervalMs = Math.max(1000, sweepInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        sessionOwners.put(sessionId, userId);
+        addSession(userId, sessionId);
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    /**
+     * Marks a session as alive; called for every inbound frame including heartbeats.
+     *
+     * @param sessionId the STOMP session ID
+     */
+    public void touch(String sessionId) {
+        Long userId = sessionOwners.get(sessionId);
+        if (userId == null) {
+            return;
+        }
+        ConcurrentHashMap<String, Long> sessions = shard(userId).get(userId);
+        if (sessions != null && sessions.replace(sessionId, System.currentTimeMillis()) != null) {
+            return;
+        }
+        // Swept while quiet but still connected
+        addSession(userId, sessionId);
+    }
+
+    /**
+     * Whether a user has a live session on any node.
+     *
+     * @param userId the user ID
+     * @return true if the user is online
+     */
+    public boolean isOnline(Long userId) {
+        ConcurrentHashMap<String, Long> sessions = shard(userId).get(userId);
+        if (sessions != null && !sessions.isEmpty()) {
+            return true;
+        }
+        return redisEnabled && isOnlineElsewhere(userId);
+    }
+
+    /**
+     * Returns the presence of several users.
+     *
+     * @param userIds the user IDs
+     * @return whether each user is online, in the given order
+     */
+    public Map<Long, Boolean> getPresence(Collection<Long> userIds) {
+        Map<Long, Boolean> presence = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            presence.put(userId, isOnline(userId));
+        }
+        return presence;
+    }
+
+    /**
+     * Returns the number of live sessions of a user on this node.
+     *
+     * @param userId the user ID
+     * @return the local session count
+     */
+    public int getLocalSessionCount(Long userId) {
+        ConcurrentHashMap<String, Long> sessions = shard(userId).get(userId);
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+        if (redisEnabled) {
+            for (ConcurrentHashMap<Long, ConcurrentHashMap<String, Long>> shard : shards) {
+                shard.keySet().forEach(userId -> publish(userId, false));
+            }
+        }
+    }
+
+    private void unregister(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Long userId = sessionOwners.remove(sessionId);
+        if (userId != null) {
+            removeSession(userId, sessionId);
+        }
+    }
+
+    private void addSession(Long userId, String sessionId) {
+        boolean[] firstSession = new boolean[1];
+        shard(userId).compute(userId, (id, sessions) -> {
+            ConcurrentHashMap<String, Long> target = sessions != null ? sessions : new ConcurrentHashMap<>();
+            firstSession[0] = target.isEmpty();
+            target.put(sessionId, System.currentTimeMillis());
+            return target;
+        });
+        if (firstSession[0]) {
+            publish(userId, true);
+        }
+    }
+
+    private void removeSession(Long userId, String sessionId) {
+        boolean[] lastSession = new boolean[1];
+        shard(userId).computeIfPresent(userId, (id, sessions) -> {
+            if (sessions.remove(sessionId) == null || !sessions.isEmpty()) {
+                return sessions;
+            }
+            lastSession[0] = true;
+            return null;
+        });
+        if (lastSession[0]) {
+            publish(userId, false);
+        }
+    }
+
+    private void sweep() {
+        try {
+            long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+            for (ConcurrentHashMap<Long, ConcurrentHashMap<String, Long>> shard : shards) {
+                for (Map.Entry<Long, ConcurrentHashMap<String, Long>> entry : shard.entrySet()) {
+                    entry.getValue().forEach((sessionId, lastSeen) -> {
+                        if (lastSeen < cutoff) {
+                            log.debug("Expiring silent STOMP session {} of user {}", sessionId, entry.getKey());
+                            removeSession(entry.getKey(), sessionId);
+                        }
+                    });
+                    if (redisEnabled && !entry.getValue().isEmpty()) {
+                        publish(entry.getKey(), true);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Presence sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void publish(Long userId, boolean online) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            String key = REDIS_KEY_PREFIX + userId;
+            if (online) {
+                long expiresAt = System.currentTimeMillis() + sessionTtlMillis;
+                stringRedisTemplate.opsForHash().put(key, nodeId, Long.toString(expiresAt));
+                stringRedisTemplate.expire(key, Duration.ofMillis(sessionTtlMillis));
+            } else {
+                stringRedisTemplate.opsForHash().delete(key, nodeId);
+            }
+        } catch (Exception e) {
+            log.debug("Presence replication to Redis failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private boolean isOnlineElsewhere(Long userId) {
+        try {
+            long now = System.currentTimeMillis();
+            // Each node's entry carries its own expiry, so a crashed node stops counting
+            return stringRedisTemplate.opsForHash().values(REDIS_KEY_PREFIX + userId).stream()
+                    .anyMatch(expiresAt -> Long.parseLong(expiresAt.toString()) > now);
+        } catch (Exception e) {
+            log.debug("Presence lookup in Redis failed for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    private ConcurrentHashMap<Long, ConcurrentHashMap<String, Long>> shard(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    private int countLocalUsers() {
+        int count = 0;
+        for (ConcurrentHashMap<Long, ConcurrentHashMap<String, Long>> shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    private static Long userId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof JwtUser jwtUser) {
+            return jwtUser.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Handles delivery of real-time STOMP pushes. In the default {@code simple} mode messages
+ * go straight to the in-memory broker of this node. In {@code redis} mode every push is
+ * published on a Redis channel and each node delivers it to the sessions it holds, so a
+ * recipient connected to another instance still receives it.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class RealtimeDeliveryService {
+
+    public static final String FANOUT_CHANNEL = "lms:stomp:fanout";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Broker mode: simple (single node) or redis (pub/sub fan-out across nodes)
+     */
+    @Value("${app.messaging.broker:simple}")
+    private String brokerMode;
+
+    /**
+     * A callback for payloads delivered to the local broker under a destination prefix
+     */
+    private record DeliveryListener<T>(String destinationPrefix, Class<T> type, Consumer<T> consumer) {
+    }
+
+    private final List<DeliveryListener<?>> deliveryListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a callback invoked on every node for each payload delivered to a
+     * destination under the given prefix, whichever node sent it. Lets node-local state
+     * (such as recent history) follow the messages delivered cluster-wide.
+     *
+     * @param destinationPrefix the destination prefix, e.g. /topic/course/
+     * @param type the payload type to convert to
+     * @param consumer the callback
+     */
+    public <T> void addDeliveryListener(String destinationPrefix, Class<T> type, Consumer<T> consumer) {
+        deliveryListeners.add(new DeliveryListener<>(destinationPrefix, type, consumer));
+    }
+
+    /**
+     * Sends a payload to a STOMP destination, on whichever node holds the subscribers.
+     *
+     * @param destination the STOMP destination, e.g. /queue/messages/42
+     * @param payload the payload, serialized as JSON
+     */
+    public void send(String destination, Object payload) {
+        if (!"redis".equalsIgnoreCase(brokerMode)) {
+            messagingTemplate.convertAndSend(destination, payload);
+            notifyListeners(destination, payload);
+            return;
+        }
+        try {
+            ObjectNode envelope = objectMapper.createObjectNode();
+            envelope.put("destination", destination);
+            envelope.set("payload", objectMapper.valueToTree(payload));
+            // Every node, including this one, delivers from the channel
+            stringRedisTemplate.convertAndSend(FANOUT_CHANNEL, objectMapper.writeValueAsString(envelope));
+        } catch (Exception e) {
+            log.warn("Redis fan-out failed for {}, delivering on this node only: {}", destination, e.getMessage());
+            messagingTemplate.convertAndSend(destination, payload);
+            notifyListeners(destination, payload);
+        }
+    }
+
+    /**
+     * Delivers a fan-out envelope received from Redis to the local broker.
+     *
+     * @param envelopeJson the envelope published by {@link #send}
+     */
+    public void deliverLocally(String envelopeJson) {
+        try {
+            JsonNode envelope = objectMapper.readTree(envelopeJson);
+            String destination = envelope.path("destination").asText(null);
+            if (destination == null) {
+                return;
+            }
+            byte[] body = objectMapper.writeValueAsBytes(envelope.path("payload"));
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            accessor.setLeaveMutable(true);
+            Message<byte[]> message = MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+            messagingTemplate.send(destination, message);
+            notifyListeners(destination, envelope.path("payload"));
+        } catch (Exception e) {
+            log.warn("Failed to deliver fan-out message: {}", e.getMessage());
+        }
+    }
+
+    private void notifyListeners(String destination, Object payload) {
+        for (DeliveryListener<?> listener : deliveryListeners) {
+            if (destination.startsWith(listener.destinationPrefix())) {
+                notifyListener(listener, payload);
+            }
+        }
+    }
+
+    private <T> void notifyListener(DeliveryListener<T> listener, Object payload) {
+        try {
+            T value = listener.type().isInstance(payload)
+                    ? listener.type().cast(payload)
+                    : objectMapper.convertValue(payload, listener.type());
+            listener.consumer().accept(value);
+        } catch (Exception e) {
+            log.warn("Delivery listener for {} failed: {}", listener.destinationPrefix(), e.getMessage());
+        }
+    }
+}
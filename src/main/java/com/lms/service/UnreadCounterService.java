@@ -0,0 +1,140 @@
+package com.lms.service;
+
+import com.lms.domain.Conversation;
+import com.lms.repository.ConversationRepository;
+import com.lms.repository.MessageRepository;
+import com.lms.repository.UserAccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles the maintained unread message counters: one per (conversation, participant)
+ * on the conversation row and a per-user total on the user row. Counters are adjusted
+ * with atomic bulk updates in the same transaction as the message change, and the new
+ * values are pushed to the user on {@code /queue/unread/{userId}} after commit, so
+ * unread badges are single-row reads and clients do not need to poll.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class UnreadCounterService {
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private RealtimeDeliveryService realtimeDeliveryService;
+
+    /**
+     * Records a new unread message for the recipient of a conversation.
+     *
+     * @param conversation the conversation
+     * @param recipientId the recipient user ID
+     */
+    @Transactional
+    public void messageSent(Conversation conversation, Long recipientId) {
+        adjust(conversation.getId(), conversation.getParticipant1().getId().equals(recipientId), recipientId, 1);
+    }
+
+    /**
+     * Records several new unread messages for one recipient, as written by a batch.
+     *
+     * @param conversationId the conversation ID
+     * @param firstParticipant whether the recipient is the conversation's participant1
+     * @param recipientId the recipient user ID
+     * @param count the number of new messages
+     */
+    @Transactional
+    public void messagesSent(Long conversationId, boolean firstParticipant, Long recipientId, long count) {
+        if (count > 0) {
+            adjust(conversationId, firstParticipant, recipientId, count);
+        }
+    }
+
+    /**
+     * Records that a user has read messages in a conversation.
+     *
+     * @param conversation the conversation
+     * @param userId the reader's user ID
+     * @param count the number of messages newly marked as read
+     */
+    @Transactional
+    public void messagesRead(Conversation conversation, Long userId, int count) {
+        if (count > 0) {
+            adjust(conversation.getId(), conversation.getParticipant1().getId().equals(userId), userId, -count);
+        }
+    }
+
+    /**
+     * Returns a user's total unread message count.
+     *
+     * @param userId the user ID
+     * @return the unread count
+     */
+    public long getTotalUnread(Long userId) {
+        // Counters not yet backfilled fall back to a single aggregate query
+        return userAccountRepository.findUnreadMessageCount(userId)
+                .orElseGet(() -> messageRepository.countUnreadMessagesForUser(userId));
+    }
+
+    /**
+     * Backfills counters for conversations and users created before counters were maintained.
+     */
+    @Transactional
+    public void backfill() {
+        int conversations = conversationRepository.backfillParticipant1Unread()
+                + conversationRepository.backfillParticipant2Unread();
+        int users = userAccountRepository.backfillUnreadMessageCounts();
+        if (conversations > 0 || users > 0) {
+            log.info("Backfilled unread counters for {} conversation participants and {} users", conversations, users);
+        }
+    }
+
+    private void adjust(Long conversationId, boolean firstParticipant, Long userId, long delta) {
+        if (firstParticipant) {
+            conversationRepository.adjustParticipant1Unread(conversationId, delta);
+        } else {
+            conversationRepository.adjustParticipant2Unread(conversationId, delta);
+        }
+        userAccountRepository.adjustUnreadMessageCount(userId, delta);
+
+        // Read back inside the transaction, push only once the change is committed
+        List<Object[]> counts = conversationRepository.findUnreadCounts(conversationId);
+        Object conversationUnread = counts.isEmpty() ? null : counts.get(0)[firstParticipant ? 0 : 1];
+        long totalUnread = getTotalUnread(userId);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("conversationId", conversationId);
+        payload.put("conversationUnread", conversationUnread);
+        payload.put("totalUnread", totalUnread);
+        afterCommit(() -> realtimeDeliveryService.send("/queue/unread/" + userId, payload));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
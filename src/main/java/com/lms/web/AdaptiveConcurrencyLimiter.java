@@ -0,0 +1,81 @@
+package com.lms.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD (additive increase, multiplicative decrease) concurrency limit for one endpoint
+ * class. While requests complete within the latency target and the limit is actually
+ * being used, the limit grows by one; when a request is slow or fails, the limit is cut
+ * by the backoff ratio. The limit therefore tracks what the backend can currently
+ * sustain instead of letting threads pile up when MySQL slows down.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    /**
+     * Constructs a limiter.
+     *
+     * @param initialLimit the starting limit
+     * @param minLimit the floor the limit never drops below
+     * @param maxLimit the ceiling the limit never grows above
+     * @param latencyTargetMillis requests slower than this shrink the limit
+     * @param backoffRatio the factor applied to the limit on a slow or failed request
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyTargetMillis, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetMillis * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @return true if the request may proceed; it must then be released with {@link #release}
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its outcome.
+     *
+     * @param latencyNanos how long the request took
+     * @param failed whether the request failed with a server error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                // Only grow when the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
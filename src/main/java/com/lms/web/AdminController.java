@@ -2,6 +2,9 @@ package com.lms.web;
 
 import com.lms.domain.*;
 import com.lms.repository.*;
+import com.lms.security.JwtUser;
+import com.lms.security.PrincipalCache;
+import com.lms.security.TokenVersionRegistry;
 import com.lms.service.CourseService;
 import com.lms.service.OrganizationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +48,12 @@ public class AdminController {
     @Autowired
     private OrganizationService organizationService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     public AdminController(UserAccountRepository userAccountRepository, PasswordEncoder passwordEncoder) {
         this.userAccountRepository = userAccountRepository;
         this.passwordEncoder = passwordEncoder;
@@ -57,6 +66,9 @@ public class AdminController {
         if (principal == null) {
             return false;
         }
+        if (principal instanceof JwtUser jwtUser) {
+            return jwtUser.isAdmin();
+        }
         var user = userAccountRepository.findByEmail(principal.getUsername())
                 .orElse(null);
         return user != null && user.getUserType() == UserAccount.UserType.ADMIN;
@@ -144,6 +156,7 @@ public class AdminController {
 
         teacher.setTeacherApproved(true);
         userAccountRepository.save(teacher);
+        principalCache.invalidate(teacher.getEmail());
 
         return ResponseEntity.ok(Map.of("message", "Teacher approved successfully", "teacherId", teacherId));
     }
@@ -172,6 +185,7 @@ public class AdminController {
 
         teacher.setTeacherApproved(false);
         userAccountRepository.save(teacher);
+        principalCache.invalidate(teacher.getEmail());
 
         return ResponseEntity.ok(Map.of("message", "Teacher disapproved successfully", "teacherId", teacherId));
     }
@@ -262,6 +276,7 @@ public class AdminController {
             if (courseData.getFeatured() != null) course.setFeatured(courseData.getFeatured());
 
             Course updated = courseRepository.save(course);
+            courseService.evictCatalogCaches(courseId);
             return ResponseEntity.ok(Map.of("message", "Course updated successfully", "course", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -285,6 +300,7 @@ public class AdminController {
                     .orElseThrow(() -> new RuntimeException("Course not found"));
 
             courseRepository.delete(course);
+            courseService.evictCatalogCaches(courseId);
             return ResponseEntity.ok(Map.of("message", "Course deleted successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -308,6 +324,7 @@ public class AdminController {
 
             course.setStatus(Course.CourseStatus.PUBLISHED);
             Course updated = courseRepository.save(course);
+            courseService.evictCatalogCaches(courseId);
             return ResponseEntity.ok(Map.of("message", "Course published successfully", "course", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -328,6 +345,7 @@ public class AdminController {
 
             course.setStatus(Course.CourseStatus.DRAFT);
             Course updated = courseRepository.save(course);
+            courseService.evictCatalogCaches(courseId);
             return ResponseEntity.ok(Map.of("message", "Course unpublished successfully", "course", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -490,6 +508,8 @@ public class AdminController {
         }
 
         userAccountRepository.delete(student);
+        tokenVersionRegistry.invalidate(student.getEmail());
+        principalCache.invalidate(student.getEmail());
         return ResponseEntity.ok(Map.of("message", "Student deleted successfully"));
     }
 
@@ -610,6 +630,8 @@ public class AdminController {
         }
 
         userAccountRepository.delete(teacher);
+        tokenVersionRegistry.invalidate(teacher.getEmail());
+        principalCache.invalidate(teacher.getEmail());
         return ResponseEntity.ok(Map.of("message", "Teacher deleted successfully"));
     }
 
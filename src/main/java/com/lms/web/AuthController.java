@@ -3,6 +3,7 @@ package com.lms.web;
 import com.lms.domain.UserAccount;
 import com.lms.repository.UserAccountRepository;
 import com.lms.security.JwtService;
+import com.lms.security.TokenVersionRegistry;
 import com.lms.service.EmailVerificationService;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -39,6 +40,7 @@ public class AuthController {
     private final AuthenticationManager authManager;
     private final JwtService jwtService;
     private final EmailVerificationService emailVerificationService;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @Value("${app.teacher.registration-enabled:true}")
     private boolean teacherRegistrationEnabled;
@@ -48,12 +50,14 @@ public class AuthController {
 
     public AuthController(UserAccountRepository users, PasswordEncoder encoder, 
                          AuthenticationManager authManager, JwtService jwtService,
-                         EmailVerificationService emailVerificationService) {
+                         EmailVerificationService emailVerificationService,
+                         TokenVersionRegistry tokenVersionRegistry) {
         this.users = users;
         this.encoder = encoder;
         this.authManager = authManager;
         this.jwtService = jwtService;
         this.emailVerificationService = emailVerificationService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
     /**
@@ -112,7 +116,7 @@ public class AuthController {
         // Send verification email (pass saved user to avoid merge issues)
         emailVerificationService.sendVerificationEmail(savedUser);
         
-        String token = jwtService.generateToken(u.getEmail());
+        String token = jwtService.generateToken(savedUser, tokenVersionRegistry.currentVersion(savedUser.getEmail()));
         String message = "Registration successful. Please verify your email.";
         if (u.getUserType() == UserAccount.UserType.TEACHER) {
             message = "Registration successful. Your teacher account has been created. Please verify your email.";
@@ -223,7 +227,7 @@ public class AuthController {
             // }
         }
         
-        String token = jwtService.generateToken(req.email());
+        String token = jwtService.generateToken(user, tokenVersionRegistry.currentVersion(user.getEmail()));
         
         return ResponseEntity.ok(Map.of(
             "token", token,
@@ -0,0 +1,174 @@
+package com.lms.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Handles pre-serialized, pre-gzipped responses for the public course catalog. Entries
+ * are keyed by endpoint and stamped with the catalog version and local epoch, so a hit is served as raw
+ * bytes without touching Jackson or JPA, and conditional requests are answered with 304.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CatalogResponseCache {
+
+    public static final String KEY_ALL_PUBLISHED = "courses:all";
+    public static final String KEY_FREE = "courses:free";
+    public static final String KEY_FEATURED = "courses:featured";
+
+    private final CatalogVersionService catalogVersionService;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Client-side freshness lifetime for catalog responses
+     */
+    @Value("${app.catalog.response-cache.max-age-seconds:30}")
+    private long maxAgeSeconds;
+
+    /**
+     * Upper bound on cached entries (lecture lists are keyed per course)
+     */
+    @Value("${app.catalog.response-cache.max-entries:2000}")
+    private int maxEntries;
+
+    public CatalogResponseCache(CatalogVersionService catalogVersionService, ObjectMapper objectMapper) {
+        this.catalogVersionService = catalogVersionService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Builds the cache key for the lecture list of a course.
+     *
+     * @param courseId the course ID
+     * @return the cache key
+     */
+    public static String lecturesKey(Long courseId) {
+        return "courses:" + courseId + ":lectures";
+    }
+
+    /**
+     * Serves a catalog response, answering If-None-Match with 304 and otherwise returning
+     * cached bytes, loading and serializing the body only when the entry is missing or stale.
+     *
+     * @param key the cache key of the endpoint
+     * @param request the current HTTP request
+     * @param loader the supplier of the response body, invoked on a miss
+     * @return the response entity with the cached body or a 304
+     */
+    public ResponseEntity<byte[]> respond(String key, HttpServletRequest request, Supplier<?> loader) {
+        long version = catalogVersionService.currentVersion();
+        long epoch = catalogVersionService.currentEpoch();
+        String etag = "W/\"" + Long.toHexString(version) + (epoch > 0 ? "." + Long.toHexString(epoch) : "") + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic().mustRevalidate();
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        CachedResponse cached = entries.get(key);
+        if (cached == null || cached.version() != version || cached.epoch() != epoch) {
+            cached = store(key, version, epoch, loader.get());
+        }
+
+        boolean gzip = acceptsGzip(request);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? cached.gzipped() : cached.identity());
+    }
+
+    /**
+     * Pre-populates an entry for the current catalog version.
+     *
+     * @param key the cache key of the endpoint
+     * @param loader the supplier of the response body
+     */
+    public void warm(String key, Supplier<?> loader) {
+        store(key, catalogVersionService.currentVersion(), catalogVersionService.currentEpoch(), loader.get());
+    }
+
+    private CachedResponse store(String key, long version, long epoch, Object body) {
+        byte[] identity;
+        try {
+            identity = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response " + key, e);
+        }
+        CachedResponse fresh = new CachedResponse(version, epoch, identity, gzip(identity));
+
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            log.debug("Catalog response cache reached {} entries, clearing", entries.size());
+            entries.clear();
+        }
+        // Never let a slow loader overwrite an entry built for a newer version
+        entries.merge(key, fresh, (existing, candidate) -> existing.version() > candidate.version()
+                || (existing.version() == candidate.version() && existing.epoch() > candidate.epoch()) ? existing : candidate);
+        return fresh;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A serialized catalog response for a given catalog version and local epoch.
+     */
+    private record CachedResponse(long version, long epoch, byte[] identity, byte[] gzipped) {}
+}
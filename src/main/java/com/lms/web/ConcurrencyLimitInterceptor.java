@@ -0,0 +1,170 @@
+package com.lms.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-wide load shedding for API endpoint classes. Each class (auth, upload, analytics,
+ * catalog, messaging) has its own adaptive concurrency limit, and all classes share a
+ * global in-flight budget of which lower-priority classes may only use a fraction, so
+ * heavy analytics is shed before cheap catalog reads. Rejected requests get a fast 503
+ * with Retry-After instead of queueing on exhausted threads.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".admitted";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    /**
+     * Endpoint classes with their default limits, latency targets and share of the
+     * global budget; a smaller share means the class is shed earlier under pressure.
+     */
+    enum EndpointClass {
+        CATALOG("catalog", 100, 400, 250, 1.0),
+        AUTH("auth", 20, 64, 1500, 0.8),
+        MESSAGING("messaging", 50, 200, 500, 0.8),
+        UPLOAD("upload", 10, 40, 30000, 0.6),
+        ANALYTICS("analytics", 8, 32, 5000, 0.4);
+
+        final String key;
+        final int initialLimit;
+        final int maxLimit;
+        final long latencyTargetMillis;
+        final double globalShare;
+
+        EndpointClass(String key, int initialLimit, int maxLimit, long latencyTargetMillis, double globalShare) {
+            this.key = key;
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTargetMillis = latencyTargetMillis;
+            this.globalShare = globalShare;
+        }
+    }
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final AtomicInteger globalInFlight = new AtomicInteger();
+
+    @Value("${app.concurrency.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Total concurrent limited requests per node; keep below the servlet thread pool size
+     */
+    @Value("${app.concurrency.global-limit:180}")
+    private int globalLimit;
+
+    @Value("${app.concurrency.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    public ConcurrencyLimitInterceptor(MeterRegistry meterRegistry, Environment environment) {
+        double backoffRatio = environment.getProperty("app.concurrency.backoff-ratio", Double.class, 0.9);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "app.concurrency." + endpointClass.key + ".";
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    environment.getProperty(prefix + "initial-limit", Integer.class, endpointClass.initialLimit),
+                    environment.getProperty(prefix + "min-limit", Integer.class, 2),
+                    environment.getProperty(prefix + "max-limit", Integer.class, endpointClass.maxLimit),
+                    environment.getProperty(prefix + "latency-target-ms", Long.class, endpointClass.latencyTargetMillis),
+                    backoffRatio);
+            limiters.put(endpointClass, limiter);
+
+            Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("class", endpointClass.key)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("class", endpointClass.key)
+                    .description("Requests currently in flight")
+                    .register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("http.concurrency.rejected")
+                    .tag("class", endpointClass.key)
+                    .description("Requests shed by the concurrency limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled || request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            return true;
+        }
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            return true;
+        }
+
+        // Shed lower-priority classes first once the shared budget fills up
+        int global = globalInFlight.incrementAndGet();
+        if (global > globalLimit * endpointClass.globalShare) {
+            globalInFlight.decrementAndGet();
+            return reject(endpointClass, request, response);
+        }
+        if (!limiters.get(endpointClass).tryAcquire()) {
+            globalInFlight.decrementAndGet();
+            return reject(endpointClass, request, response);
+        }
+
+        request.setAttribute(ADMITTED_ATTRIBUTE, endpointClass);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object admitted = request.getAttribute(ADMITTED_ATTRIBUTE);
+        if (!(admitted instanceof EndpointClass endpointClass)) {
+            return;
+        }
+        request.removeAttribute(ADMITTED_ATTRIBUTE);
+        long latency = System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE);
+        boolean failed = ex != null || response.getStatus() >= 500;
+        limiters.get(endpointClass).release(latency, failed);
+        globalInFlight.decrementAndGet();
+    }
+
+    private boolean reject(EndpointClass endpointClass, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        rejections.get(endpointClass).increment();
+        log.debug("Shedding {} request {} (limit {})", endpointClass.key, request.getRequestURI(),
+                limiters.get(endpointClass).getLimit());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"SERVER_BUSY\",\"message\":\"Server is busy. Please try again shortly.\"}");
+        return false;
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return EndpointClass.AUTH;
+        } else if (path.startsWith("/api/lms/upload/") || path.contains("/upload")) {
+            return EndpointClass.UPLOAD;
+        } else if (path.startsWith("/api/lms/analytics/") || path.startsWith("/api/lms/admin/analytics")
+                || path.startsWith("/api/lms/export/")) {
+            return EndpointClass.ANALYTICS;
+        } else if (path.startsWith("/api/lms/messaging/") || path.startsWith("/api/lms/notifications")) {
+            return EndpointClass.MESSAGING;
+        } else if (path.startsWith("/api/lms/courses") && "GET".equals(request.getMethod())) {
+            return EndpointClass.CATALOG;
+        }
+        return null;
+    }
+}
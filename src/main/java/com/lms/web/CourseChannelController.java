@@ -0,0 +1,82 @@
+package com.lms.web;
+
+import com.lms.security.JwtUser;
+import com.lms.service.CourseChannelService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for course-wide chat channels.
+ * Live messages are pushed to /topic/course/{courseId}/chat; these endpoints load history and post.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/lms/messaging/channels")
+public class CourseChannelController {
+
+    @Autowired
+    private CourseChannelService courseChannelService;
+
+    @Value("${app.messaging.channels.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.messaging.channels.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Get channel history, oldest first. Without a cursor the newest page is served from memory;
+     * pass beforeId (the oldest message ID already loaded) to page further back.
+     */
+    @GetMapping("/{courseId}/messages")
+    public ResponseEntity<?> getMessages(
+            @AuthenticationPrincipal JwtUser user,
+            @PathVariable Long courseId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        try {
+            if (!courseChannelService.isMember(courseId, user.getId())) {
+                return ResponseEntity.status(403).body(Map.of("error", "Not a member of this course channel"));
+            }
+            int pageSize = Math.min(size != null && size > 0 ? size : defaultPageSize, maxPageSize);
+            List<CourseChannelService.ChannelMessage> messages = courseChannelService.getHistory(courseId, beforeId, pageSize);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("messages", messages);
+            response.put("hasMore", messages.size() == pageSize);
+            response.put("oldestId", messages.isEmpty() ? null : messages.get(0).id());
+            response.put("topic", CourseChannelService.topic(courseId));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.error("Error fetching course channel messages: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Post a message to a course channel (HTTP endpoint - WebSocket is also available)
+     */
+    @PostMapping("/{courseId}/messages")
+    public ResponseEntity<?> postMessage(
+            @AuthenticationPrincipal JwtUser user,
+            @PathVariable Long courseId,
+            @RequestBody Map<String, Object> request) {
+        try {
+            String content = request.get("content") != null ? request.get("content").toString() : "";
+            String attachmentUrl = request.get("attachmentUrl") != null ? request.get("attachmentUrl").toString() : null;
+            String attachmentName = request.get("attachmentName") != null ? request.get("attachmentName").toString() : null;
+
+            return ResponseEntity.ok(courseChannelService.post(courseId, user.getId(), content, attachmentUrl, attachmentName));
+        } catch (RuntimeException e) {
+            log.error("Error posting course channel message: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -3,13 +3,13 @@ package com.lms.web;
 import com.lms.domain.Course;
 import com.lms.domain.CourseCategory;
 import com.lms.domain.Lecture;
-import com.lms.repository.UserAccountRepository;
+import com.lms.security.CurrentUser;
+import com.lms.security.JwtUser;
 import com.lms.service.CourseService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -27,13 +27,13 @@ public class CourseController {
     private CourseService courseService;
 
     @Autowired
-    private UserAccountRepository userAccountRepository;
+    private CatalogResponseCache catalogResponseCache;
 
     @GetMapping
-    public ResponseEntity<?> getAllPublishedCourses() {
+    public ResponseEntity<?> getAllPublishedCourses(HttpServletRequest request) {
         try {
-            List<Course> courses = courseService.getAllPublishedCourses();
-            return ResponseEntity.ok(courses);
+            return catalogResponseCache.respond(CatalogResponseCache.KEY_ALL_PUBLISHED, request,
+                    courseService::getAllPublishedCourses);
         } catch (Exception e) {
             log.error("Error in getAllPublishedCourses: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of(
@@ -44,10 +44,10 @@ public class CourseController {
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<?> getFeaturedCourses() {
+    public ResponseEntity<?> getFeaturedCourses(HttpServletRequest request) {
         try {
-            List<Course> courses = courseService.getFeaturedCourses();
-            return ResponseEntity.ok(courses);
+            return catalogResponseCache.respond(CatalogResponseCache.KEY_FEATURED, request,
+                    courseService::getFeaturedCourses);
         } catch (Exception e) {
             log.error("Error in getFeaturedCourses: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of(
@@ -58,10 +58,10 @@ public class CourseController {
     }
 
     @GetMapping("/free")
-    public ResponseEntity<?> getFreeCourses() {
+    public ResponseEntity<?> getFreeCourses(HttpServletRequest request) {
         try {
-            List<Course> courses = courseService.getFreeCourses();
-            return ResponseEntity.ok(courses);
+            return catalogResponseCache.respond(CatalogResponseCache.KEY_FREE, request,
+                    courseService::getFreeCourses);
         } catch (Exception e) {
             log.error("Error in getFreeCourses: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of(
@@ -123,16 +123,13 @@ public class CourseController {
     }
 
     @GetMapping("/my-courses")
-    public ResponseEntity<?> getMyCourses(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getMyCourses(@CurrentUser JwtUser principal) {
         try {
             if (principal == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            List<Course> courses = courseService.getCoursesByInstructor(user.getId());
+            List<Course> courses = courseService.getCoursesByInstructor(principal.getId());
             return ResponseEntity.ok(courses);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -140,26 +137,23 @@ public class CourseController {
     }
 
     @GetMapping("/{id}/lectures")
-    public ResponseEntity<List<Lecture>> getCourseLectures(@PathVariable("id") Long id) {
-        List<Lecture> lectures = courseService.getCourseLectures(id);
+    public ResponseEntity<byte[]> getCourseLectures(@PathVariable("id") Long id, HttpServletRequest request) {
         // Filter to show only free lectures for non-authenticated users
         // For authenticated users, show all lectures if enrolled
-        return ResponseEntity.ok(lectures);
+        return catalogResponseCache.respond(CatalogResponseCache.lecturesKey(id), request,
+                () -> courseService.getCourseLectures(id));
     }
 
 
     @PostMapping
     public ResponseEntity<Map<String, Object>> createCourse(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @RequestBody CreateCourseRequest request) {
         try {
             if (principal == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = new Course();
             course.setTitle(request.title());
             course.setDescription(request.description());
@@ -180,7 +174,7 @@ public class CourseController {
                         .ifPresent(course::setCategory);
             }
 
-            Course created = courseService.createCourse(course, user.getId());
+            Course created = courseService.createCourse(course, principal.getId());
             return ResponseEntity.ok(Map.of("id", created.getId(), "message", "Course created successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -189,7 +183,7 @@ public class CourseController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateCourse(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id,
             @RequestBody CreateCourseRequest request) {
         try {
@@ -197,14 +191,11 @@ public class CourseController {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
             
             // Check if user is the instructor
-            if (!course.getInstructor().getId().equals(user.getId())) {
+            if (!course.getInstructor().getId().equals(principal.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
             }
 
@@ -237,20 +228,17 @@ public class CourseController {
 
     @PostMapping("/{id}/publish")
     public ResponseEntity<Map<String, Object>> publishCourse(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id) {
         try {
             if (principal == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
             
-            if (!course.getInstructor().getId().equals(user.getId())) {
+            if (!course.getInstructor().getId().equals(principal.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
             }
 
@@ -263,20 +251,17 @@ public class CourseController {
 
     @PostMapping("/{id}/unpublish")
     public ResponseEntity<Map<String, Object>> unpublishCourse(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id) {
         try {
             if (principal == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
             
-            if (!course.getInstructor().getId().equals(user.getId())) {
+            if (!course.getInstructor().getId().equals(principal.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
             }
 
@@ -289,20 +274,17 @@ public class CourseController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteCourse(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id) {
         try {
             if (principal == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
             
-            if (!course.getInstructor().getId().equals(user.getId())) {
+            if (!course.getInstructor().getId().equals(principal.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
             }
 
@@ -320,7 +302,7 @@ public class CourseController {
 
     @PostMapping("/{id}/lectures")
     public ResponseEntity<Map<String, Object>> addLecture(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id,
             @RequestBody CreateLectureRequest request) {
         try {
@@ -328,13 +310,10 @@ public class CourseController {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required. Please login first."));
             }
             
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
             
-            if (!course.getInstructor().getId().equals(user.getId())) {
+            if (!course.getInstructor().getId().equals(principal.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
             }
 
@@ -0,0 +1,56 @@
+package com.lms.web;
+
+import com.lms.domain.UserAccount;
+import com.lms.security.CurrentUser;
+import com.lms.security.CurrentUserContext;
+import com.lms.security.JwtUser;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} controller parameters through the request-scoped
+ * {@link CurrentUserContext}. Lookup failures are raised as
+ * {@link CurrentUserResolutionException}, since they happen before the controller's own
+ * error handling runs.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserContext currentUserContext;
+
+    public CurrentUserArgumentResolver(CurrentUserContext currentUserContext) {
+        this.currentUserContext = currentUserContext;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        if (!parameter.hasParameterAnnotation(CurrentUser.class)) {
+            return false;
+        }
+        Class<?> type = parameter.getParameterType();
+        return type == UserAccount.class || type == JwtUser.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        if (parameter.getParameterType() == JwtUser.class) {
+            return currentUserContext.getPrincipal();
+        }
+        if (currentUserContext.getPrincipal() == null) {
+            return null;
+        }
+        try {
+            return currentUserContext.requireUserAccount();
+        } catch (RuntimeException e) {
+            throw new CurrentUserResolutionException(e.getMessage() != null ? e.getMessage() : "User not found", e);
+        }
+    }
+}
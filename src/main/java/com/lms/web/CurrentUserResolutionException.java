@@ -0,0 +1,16 @@
+package com.lms.web;
+
+/**
+ * Thrown when a {@link com.lms.security.CurrentUser} parameter cannot be resolved, e.g.
+ * because the account no longer exists or the lookup failed. Mapped to 400 Bad Request
+ * with an {@code error} body, as the endpoints returned before they used the resolver.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+public class CurrentUserResolutionException extends RuntimeException {
+
+    public CurrentUserResolutionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,8 @@
 package com.lms.web;
 
+import com.lms.security.PasswordHashingBusyException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -43,6 +45,20 @@ public class GlobalExceptionHandler {
         return handleException(e, request, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingBusyException(PasswordHashingBusyException e, HttpServletRequest request) {
+        log.warn("Password hashing pool saturated at {}", request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(Map.of("error", "SERVER_BUSY", "message", e.getMessage(), "status", HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
+    @ExceptionHandler(CurrentUserResolutionException.class)
+    public ResponseEntity<Map<String, Object>> handleCurrentUserResolutionException(CurrentUserResolutionException e, HttpServletRequest request) {
+        log.warn("Could not resolve current user at {}: {}", request.getRequestURI(), e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Object handleValidationException(MethodArgumentNotValidException e, HttpServletRequest request) {
         String path = request.getRequestURI();
@@ -5,16 +5,22 @@ import com.lms.domain.Course;
 import com.lms.domain.Message;
 import com.lms.domain.UserAccount;
 import com.lms.repository.UserAccountRepository;
+import com.lms.security.JwtUser;
+import com.lms.service.ConversationMembershipCache;
+import com.lms.service.ConversationSummaryService;
 import com.lms.service.CourseService;
 import com.lms.service.EnrollmentService;
+import com.lms.service.MessageSearchService;
+import com.lms.service.PresenceService;
 import com.lms.service.MessagingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +48,18 @@ public class MessagingController {
     @Autowired
     private EnrollmentService enrollmentService;
 
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ConversationMembershipCache conversationMembershipCache;
+
     /**
      * Get list of users that the current user can start a conversation with.
      * For now this returns all users in the same organization (if any),
@@ -50,14 +68,11 @@ public class MessagingController {
      * even in single-user test environments.
      */
     @GetMapping("/users")
-    public ResponseEntity<?> getMessagingUsers(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getMessagingUsers(@AuthenticationPrincipal JwtUser user) {
         try {
-            UserAccount current = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<UserAccount> candidates;
-            if (current.getOrganization() != null) {
-                candidates = userAccountRepository.findByOrganizationId(current.getOrganization().getId());
+            if (user.getOrganizationId() != null) {
+                candidates = userAccountRepository.findByOrganizationId(user.getOrganizationId());
             } else {
                 candidates = userAccountRepository.findAll();
             }
@@ -85,23 +100,20 @@ public class MessagingController {
      * Returns courses the user is enrolled in (if student) or teaching (if teacher).
      */
     @GetMapping("/courses")
-    public ResponseEntity<?> getMessagingCourses(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getMessagingCourses(@AuthenticationPrincipal JwtUser user) {
         try {
-            UserAccount current = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Course> courses;
             
             // If student, get enrolled courses
-            if (current.getUserType() == UserAccount.UserType.STUDENT) {
-                courses = enrollmentService.getStudentEnrollments(current.getId()).stream()
+            if (user.getUserType() == UserAccount.UserType.STUDENT) {
+                courses = enrollmentService.getStudentEnrollments(user.getId()).stream()
                         .map(enrollment -> enrollment.getCourse())
                         .filter(course -> course != null)
                         .collect(Collectors.toList());
             } 
             // If teacher, get courses they're teaching
-            else if (current.getUserType() == UserAccount.UserType.TEACHER) {
-                courses = courseService.getCoursesByInstructor(current.getId());
+            else if (user.getUserType() == UserAccount.UserType.TEACHER) {
+                courses = courseService.getCoursesByInstructor(user.getId());
             } 
             // For other types (ADMIN, ORGANIZATION), return all published courses
             else {
@@ -130,11 +142,10 @@ public class MessagingController {
      */
     @PostMapping("/conversation")
     public ResponseEntity<?> getOrCreateConversation(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @RequestBody Map<String, Object> request) {
         try {
-            Long userId1 = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Current user not found")).getId();
+            Long userId1 = user.getId();
             
             Object userIdObj = request.get("userId");
             if (userIdObj == null) {
@@ -234,10 +245,9 @@ public class MessagingController {
      * Get all conversations for the current user
      */
     @GetMapping("/conversations")
-    public ResponseEntity<?> getConversations(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getConversations(@AuthenticationPrincipal JwtUser user) {
         try {
-            Long userId = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found")).getId();
+            Long userId = user.getId();
             List<Conversation> conversations = messagingService.getUserConversations(userId);
             
             // Build safe response objects to avoid serialization issues
@@ -246,6 +256,7 @@ public class MessagingController {
                 convMap.put("id", conv.getId());
                 convMap.put("createdAt", conv.getCreatedAt());
                 convMap.put("lastMessageAt", conv.getLastMessageAt());
+                convMap.put("unreadCount", conv.getUnreadCountFor(userId));
                 
                 // Add participant info
                 Map<String, Object> p1 = new HashMap<>();
@@ -280,39 +291,47 @@ public class MessagingController {
         }
     }
 
+    /**
+     * Get the current user's inbox: conversations with participants, course, last-message
+     * preview and unread count, most recent activity first. Pass the returned
+     * {@code nextBefore} and {@code nextBeforeId} to load the next page.
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<?> getInbox(
+            @AuthenticationPrincipal JwtUser user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        try {
+            ConversationSummaryService.InboxPage page =
+                    conversationSummaryService.getInbox(user.getId(), before, beforeId, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("conversations", page.conversations());
+            response.put("hasMore", page.hasMore());
+            response.put("nextBefore", page.nextBefore());
+            response.put("nextBeforeId", page.nextBeforeId());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error getting inbox: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get messages in a conversation
      */
     @GetMapping("/conversation/{conversationId}/messages")
     public ResponseEntity<?> getMessages(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @PathVariable Long conversationId) {
         try {
             List<Message> messages = messagingService.getConversationMessages(conversationId);
             
             // Build safe response objects to avoid serialization issues
-            List<Map<String, Object>> response = messages.stream().map(msg -> {
-                Map<String, Object> msgMap = new HashMap<>();
-                msgMap.put("id", msg.getId());
-                msgMap.put("content", msg.getContent());
-                msgMap.put("sentAt", msg.getSentAt());
-                msgMap.put("isRead", msg.getIsRead());
-                msgMap.put("readAt", msg.getReadAt());
-                msgMap.put("attachmentUrl", msg.getAttachmentUrl());
-                msgMap.put("attachmentName", msg.getAttachmentName());
-                
-                // Add sender info
-                if (msg.getSender() != null) {
-                    Map<String, Object> senderMap = new HashMap<>();
-                    senderMap.put("id", msg.getSender().getId());
-                    senderMap.put("name", msg.getSender().getName());
-                    senderMap.put("email", msg.getSender().getEmail());
-                    senderMap.put("userType", msg.getSender().getUserType() != null ? msg.getSender().getUserType().name() : null);
-                    msgMap.put("sender", senderMap);
-                }
-                
-                return msgMap;
-            }).collect(Collectors.toList());
+            List<Map<String, Object>> response = messages.stream()
+                    .map(this::toMessageMap)
+                    .collect(Collectors.toList());
             
             log.debug("Returning {} messages for conversation {}", response.size(), conversationId);
             return ResponseEntity.ok(response);
@@ -322,17 +341,49 @@ public class MessagingController {
         }
     }
 
+    /**
+     * Get one page of messages in a conversation. Without a cursor the newest page is
+     * returned; pass {@code before} (the oldest loaded message ID) to load older history
+     * or {@code after} (the newest loaded message ID) to catch up on newer messages.
+     */
+    @GetMapping("/conversation/{conversationId}/messages/page")
+    public ResponseEntity<?> getMessagesPage(
+            @AuthenticationPrincipal JwtUser user,
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        try {
+            if (!conversationMembershipCache.get(conversationId).isParticipant(user.getId())) {
+                return ResponseEntity.status(403).body(Map.of("error", "Not a participant of this conversation"));
+            }
+            MessagingService.MessagePage page =
+                    messagingService.getConversationMessagesPage(conversationId, before, after, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("messages", page.messages().stream()
+                    .map(this::toMessageMap)
+                    .collect(Collectors.toList()));
+            response.put("hasMore", page.hasMore());
+            response.put("oldestId", page.oldestId());
+            response.put("newestId", page.newestId());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error getting messages page: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Send a message (HTTP endpoint - WebSocket is also available)
      */
     @PostMapping("/conversation/{conversationId}/message")
     public ResponseEntity<?> sendMessage(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @PathVariable Long conversationId,
             @RequestBody Map<String, Object> request) {
         try {
-            Long senderId = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found")).getId();
+            Long senderId = user.getId();
             String content = request.get("content") != null ? request.get("content").toString() : "";
             String attachmentUrl = request.get("attachmentUrl") != null && !request.get("attachmentUrl").toString().isEmpty() ? 
                     request.get("attachmentUrl").toString() : null;
@@ -384,7 +435,7 @@ public class MessagingController {
      */
     @PostMapping("/attachment/upload")
     public ResponseEntity<?> uploadAttachment(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
         try {
             // Use existing file upload service
@@ -416,11 +467,10 @@ public class MessagingController {
      */
     @PostMapping("/conversation/{conversationId}/read")
     public ResponseEntity<?> markAsRead(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @PathVariable Long conversationId) {
         try {
-            Long userId = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow().getId();
+            Long userId = user.getId();
             messagingService.markMessagesAsRead(conversationId, userId);
             return ResponseEntity.ok(Map.of("success", true));
         } catch (Exception e) {
@@ -433,10 +483,9 @@ public class MessagingController {
      * Get unread message count
      */
     @GetMapping("/unread-count")
-    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal JwtUser user) {
         try {
-            Long userId = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow().getId();
+            Long userId = user.getId();
             Long count = messagingService.getUnreadCount(userId);
             return ResponseEntity.ok(Map.of("count", count));
         } catch (Exception e) {
@@ -445,21 +494,90 @@ public class MessagingController {
         }
     }
 
+    /**
+     * Get the online presence of up to 200 users
+     */
+    @GetMapping("/presence")
+    public ResponseEntity<?> getPresence(
+            @AuthenticationPrincipal JwtUser user,
+            @RequestParam List<Long> userIds) {
+        if (userIds.size() > 200) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most 200 user IDs can be queried at once"));
+        }
+        return ResponseEntity.ok(presenceService.getPresence(userIds));
+    }
+
     /**
      * Search messages in a conversation
      */
     @GetMapping("/conversation/{conversationId}/search")
     public ResponseEntity<?> searchMessages(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal JwtUser user,
             @PathVariable Long conversationId,
             @RequestParam String keyword) {
         try {
-            List<Message> messages = messagingService.searchMessages(conversationId, keyword);
+            List<Message> messages = messagingService.searchMessages(conversationId, user.getId(), keyword);
             return ResponseEntity.ok(messages);
         } catch (Exception e) {
             log.error("Error searching messages: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
-}
 
+    /**
+     * Search all of the current user's messages, best match first. The query supports
+     * plain words, "quoted phrases" and prefix* terms; all parts must match.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchAllMessages(
+            @AuthenticationPrincipal JwtUser user,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long conversationId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            MessageSearchService.SearchPage result =
+                    messageSearchService.search(user.getId(), query, conversationId, page, size);
+
+            List<Map<String, Object>> hits = result.messages().stream().map(msg -> {
+                Map<String, Object> hit = toMessageMap(msg);
+                hit.put("conversationId", msg.getConversation().getId());
+                hit.put("score", result.scores().get(msg.getId()));
+                return hit;
+            }).collect(Collectors.toList());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", hits);
+            response.put("total", result.total());
+            response.put("page", result.page());
+            response.put("size", result.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error searching all messages: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> toMessageMap(Message msg) {
+        Map<String, Object> msgMap = new HashMap<>();
+        msgMap.put("id", msg.getId());
+        msgMap.put("content", msg.getContent());
+        msgMap.put("sentAt", msg.getSentAt());
+        msgMap.put("isRead", msg.getIsRead());
+        msgMap.put("readAt", msg.getReadAt());
+        msgMap.put("attachmentUrl", msg.getAttachmentUrl());
+        msgMap.put("attachmentName", msg.getAttachmentName());
+
+        // Add sender info
+        if (msg.getSender() != null) {
+            Map<String, Object> senderMap = new HashMap<>();
+            senderMap.put("id", msg.getSender().getId());
+            senderMap.put("name", msg.getSender().getName());
+            senderMap.put("email", msg.getSender().getEmail());
+            senderMap.put("userType", msg.getSender().getUserType() != null ? msg.getSender().getUserType().name() : null);
+            msgMap.put("sender", senderMap);
+        }
+
+        return msgMap;
+    }
+}
@@ -1,15 +1,17 @@
 package com.lms.web;
 
 import com.lms.domain.Notification;
-import com.lms.repository.UserAccountRepository;
+import com.lms.security.CurrentUser;
+import com.lms.security.JwtUser;
 import com.lms.service.NotificationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,16 +23,10 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
-    @Autowired
-    private UserAccountRepository userAccountRepository;
-
     @GetMapping
-    public ResponseEntity<?> getNotifications(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getNotifications(@CurrentUser JwtUser principal) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<Notification> notifications = notificationService.getUserNotifications(user.getId());
+            List<Notification> notifications = notificationService.getUserNotifications(principal.getId());
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             log.error("Failed to load notifications for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
@@ -38,13 +34,37 @@ public class NotificationController {
         }
     }
 
-    @GetMapping("/unread")
-    public ResponseEntity<?> getUnreadNotifications(@AuthenticationPrincipal User principal) {
+    /**
+     * Get one page of notifications, newest first. Pass nextBefore and nextBeforeId from
+     * the previous page to continue.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getNotificationsPage(
+            @CurrentUser JwtUser principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            NotificationService.NotificationPage page =
+                    notificationService.getNotificationsPage(principal.getId(), unreadOnly, before, beforeId, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("notifications", page.notifications());
+            response.put("hasMore", page.hasMore());
+            response.put("nextBefore", page.nextBefore());
+            response.put("nextBeforeId", page.nextBeforeId());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Failed to load notification page for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to load notifications"));
+        }
+    }
 
-            List<Notification> notifications = notificationService.getUnreadNotifications(user.getId());
+    @GetMapping("/unread")
+    public ResponseEntity<?> getUnreadNotifications(@CurrentUser JwtUser principal) {
+        try {
+            List<Notification> notifications = notificationService.getUnreadNotifications(principal.getId());
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             log.error("Failed to load unread notifications for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
@@ -53,12 +73,9 @@ public class NotificationController {
     }
 
     @GetMapping("/unread/count")
-    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getUnreadCount(@CurrentUser JwtUser principal) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            Long count = notificationService.getUnreadCount(user.getId());
+            Long count = notificationService.getUnreadCount(principal.getId());
             return ResponseEntity.ok(Map.of("count", count));
         } catch (Exception e) {
             log.error("Failed to load unread notification count for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
@@ -68,13 +85,10 @@ public class NotificationController {
 
     @PatchMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            notificationService.markAsRead(id, user.getId());
+            notificationService.markAsRead(id, principal.getId());
             return ResponseEntity.ok(Map.of("message", "Notification marked as read"));
         } catch (Exception e) {
             log.error("Failed to mark notification {} as read for user {}: {}", id,
@@ -83,29 +97,40 @@ public class NotificationController {
         }
     }
 
+    /**
+     * Mark notifications read in bulk: all of them, or only those of a type and/or created before a time
+     */
     @PatchMapping("/read-all")
-    public ResponseEntity<?> markAllAsRead(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> markAllAsRead(
+            @CurrentUser JwtUser principal,
+            @RequestParam(required = false) Notification.NotificationType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            notificationService.markAllAsRead(user.getId());
-            return ResponseEntity.ok(Map.of("message", "All notifications marked as read"));
+            int updated = notificationService.markAllAsRead(principal.getId(), type, before);
+            return ResponseEntity.ok(Map.of("message", "Notifications marked as read", "updated", updated));
         } catch (Exception e) {
             log.error("Failed to mark all notifications as read for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to mark all as read"));
         }
     }
 
+    @DeleteMapping("/read")
+    public ResponseEntity<?> deleteAllRead(@CurrentUser JwtUser principal) {
+        try {
+            int deleted = notificationService.deleteAllRead(principal.getId());
+            return ResponseEntity.ok(Map.of("message", "Read notifications deleted", "deleted", deleted));
+        } catch (Exception e) {
+            log.error("Failed to delete read notifications for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to delete notifications"));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteNotification(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser JwtUser principal,
             @PathVariable("id") Long id) {
         try {
-            var user = userAccountRepository.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            notificationService.deleteNotification(id, user.getId());
+            notificationService.deleteNotification(id, principal.getId());
             return ResponseEntity.ok(Map.of("message", "Notification deleted successfully"));
         } catch (Exception e) {
             log.error("Failed to delete notification {} for user {}: {}", id,
@@ -2,11 +2,11 @@ package com.lms.web;
 
 import com.lms.domain.UserAccount;
 import com.lms.repository.UserAccountRepository;
+import com.lms.security.CurrentUser;
 import com.lms.security.JwtService;
+import com.lms.security.PrincipalCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -41,22 +41,26 @@ public class ProfileController {
     private final UserAccountRepository users;
     private final JwtService jwtService;
     private final com.lms.service.FileUploadService fileUploadService;
+    private final PrincipalCache principalCache;
 
     public ProfileController(
             UserAccountRepository users,
             JwtService jwtService,
-            com.lms.service.FileUploadService fileUploadService) {
+            com.lms.service.FileUploadService fileUploadService,
+            PrincipalCache principalCache) {
         this.users = users;
         this.jwtService = jwtService;
         this.fileUploadService = fileUploadService;
+        this.principalCache = principalCache;
     }
 
     @GetMapping
-    public ResponseEntity<?> getProfile(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getProfile(@CurrentUser UserAccount ua) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             ProfileDto profile = new ProfileDto(
                 ua.getId(),
                 ua.getEmail(),
@@ -81,19 +85,20 @@ public class ProfileController {
             
             return ResponseEntity.ok(profile);
         } catch (Exception e) {
-            log.error("Failed to load profile for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to load profile for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to load profile"));
         }
     }
 
     @PutMapping
     public ResponseEntity<?> updateProfile(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser UserAccount ua,
             @RequestBody UpdateProfileRequest req) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             if (req.name() != null) ua.setName(req.name());
             if (req.phone() != null) ua.setPhone(req.phone());
             if (req.bio() != null) ua.setBio(req.bio());
@@ -112,21 +117,23 @@ public class ProfileController {
             }
             
             users.save(ua);
+            principalCache.invalidate(ua.getEmail());
             return ResponseEntity.ok(Map.of("success", true, "message", "Profile updated successfully"));
         } catch (Exception e) {
-            log.error("Failed to update profile for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to update profile for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to update profile"));
         }
     }
 
     @PostMapping("/avatar")
     public ResponseEntity<?> uploadAvatar(
-            @AuthenticationPrincipal User principal,
+            @CurrentUser UserAccount ua,
             @RequestParam("file") MultipartFile file) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
             }
@@ -139,17 +146,18 @@ public class ProfileController {
             
             return ResponseEntity.ok(Map.of("success", true, "avatarUrl", avatarUrl, "message", "Avatar uploaded successfully"));
         } catch (Exception e) {
-            log.error("Failed to upload avatar for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to upload avatar for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to upload avatar"));
         }
     }
 
     @GetMapping("/completion-status")
-    public ResponseEntity<?> getCompletionStatus(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getCompletionStatus(@CurrentUser UserAccount ua) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             Map<String, Object> status = new HashMap<>();
             status.put("emailVerified", ua.getEmailVerified() != null ? ua.getEmailVerified() : false);
             status.put("phoneVerified", ua.getPhoneVerified() != null ? ua.getPhoneVerified() : false);
@@ -175,17 +183,18 @@ public class ProfileController {
             
             return ResponseEntity.ok(status);
         } catch (Exception e) {
-            log.error("Failed to load completion status for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to load completion status for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to load completion status"));
         }
     }
 
     @GetMapping("/verification-status")
-    public ResponseEntity<?> getVerificationStatus(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getVerificationStatus(@CurrentUser UserAccount ua) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             Map<String, Object> verification = new HashMap<>();
             verification.put("emailVerified", ua.getEmailVerified() != null ? ua.getEmailVerified() : false);
             verification.put("phoneVerified", ua.getPhoneVerified() != null ? ua.getPhoneVerified() : false);
@@ -194,17 +203,18 @@ public class ProfileController {
             
             return ResponseEntity.ok(verification);
         } catch (Exception e) {
-            log.error("Failed to load verification status for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to load verification status for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to load verification status"));
         }
     }
 
     @GetMapping("/subscription")
-    public ResponseEntity<?> getSubscriptionInfo(@AuthenticationPrincipal User principal) {
+    public ResponseEntity<?> getSubscriptionInfo(@CurrentUser UserAccount ua) {
         try {
-            UserAccount ua = users.findByEmail(principal.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            if (ua == null) {
+                throw new RuntimeException("User not found");
+            }
+
             Map<String, Object> subscription = new HashMap<>();
             subscription.put("plan", ua.getSubscriptionPlan() != null ? ua.getSubscriptionPlan().name() : "FREE");
             subscription.put("active", ua.getSubscriptionActive() != null ? ua.getSubscriptionActive() : false);
@@ -222,7 +232,7 @@ public class ProfileController {
             
             return ResponseEntity.ok(subscription);
         } catch (Exception e) {
-            log.error("Failed to load subscription info for user {}: {}", principal != null ? principal.getUsername() : "unknown", e.getMessage(), e);
+            log.error("Failed to load subscription info for user {}: {}", ua != null ? ua.getEmail() : "unknown", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to load subscription info"));
         }
     }
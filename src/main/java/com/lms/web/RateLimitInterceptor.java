@@ -2,6 +2,7 @@ package com.lms.web;
 
 import com.lms.config.RateLimitConfig;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,12 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     @Value("${app.rate-limit.enabled:true}")
     private boolean rateLimitEnabled;
 
+    /**
+     * Whether X-Forwarded-For / X-Real-IP are trusted; only enable behind a proxy that sets them
+     */
+    @Value("${app.rate-limit.trust-forwarded-headers:true}")
+    private boolean trustForwardedHeaders;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         if (!rateLimitEnabled) {
@@ -49,13 +56,12 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // Get or create bucket for this client
-        Bucket bucket = rateLimitConfig.getBucket(bucketKey, bucketSupplier);
+        // Try to consume a token from this client's bucket (local or distributed)
+        ConsumptionProbe probe = rateLimitConfig.tryConsume(bucketKey, bucketSupplier);
 
-        // Try to consume a token
-        if (bucket.tryConsume(1)) {
+        if (probe.isConsumed()) {
             // Add rate limit headers
-            long availableTokens = bucket.getAvailableTokens();
+            long availableTokens = probe.getRemainingTokens();
             response.setHeader("X-RateLimit-Limit", String.valueOf(availableTokens));
             response.setHeader("X-RateLimit-Remaining", String.valueOf(availableTokens));
             return true;
@@ -81,6 +87,9 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     }
 
     private String getClientIpAddress(HttpServletRequest request) {
+        if (!trustForwardedHeaders) {
+            return request.getRemoteAddr();
+        }
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             return xForwardedFor.split(",")[0].trim();
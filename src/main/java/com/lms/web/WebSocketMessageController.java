@@ -1,14 +1,14 @@
 package com.lms.web;
 
-import com.lms.repository.UserAccountRepository;
+import com.lms.security.JwtUser;
+import com.lms.service.CourseChannelService;
 import com.lms.service.MessagingService;
+import com.lms.service.TypingIndicatorService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Controller;
 
 import java.util.Map;
@@ -25,10 +25,10 @@ public class WebSocketMessageController {
     private MessagingService messagingService;
 
     @Autowired
-    private UserAccountRepository userAccountRepository;
+    private TypingIndicatorService typingIndicatorService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private CourseChannelService courseChannelService;
 
     /**
      * Handle incoming chat messages via WebSocket
@@ -36,10 +36,9 @@ public class WebSocketMessageController {
      */
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload Map<String, Object> payload, 
-                           @AuthenticationPrincipal User user) {
+                           @AuthenticationPrincipal JwtUser user) {
         try {
-            Long senderId = userAccountRepository.findByEmail(user.getUsername())
-                    .orElseThrow().getId();
+            Long senderId = user.getId();
             Long conversationId = Long.parseLong(payload.get("conversationId").toString());
             String content = payload.get("content") != null ? payload.get("content").toString() : "";
             String attachmentUrl = payload.get("attachmentUrl") != null ? payload.get("attachmentUrl").toString() : null;
@@ -53,25 +52,43 @@ public class WebSocketMessageController {
     }
 
     /**
-     * Handle typing indicators
+     * Handle typing indicators. Events are coalesced per (conversation, user) and state
+     * changes are broadcast to /topic/conversation/{id}/typing on a short tick; typing
+     * state expires on its own if the client stops sending events.
      * Client sends to: /app/chat.typing
      */
     @MessageMapping("/chat.typing")
     public void handleTyping(@Payload Map<String, Object> payload,
-                            @AuthenticationPrincipal User user) {
+                            @AuthenticationPrincipal JwtUser user) {
         try {
             Long conversationId = Long.parseLong(payload.get("conversationId").toString());
             Boolean isTyping = payload.get("isTyping") != null ? 
                     Boolean.parseBoolean(payload.get("isTyping").toString()) : false;
             
-            // Broadcast typing status to conversation participants
-            messagingTemplate.convertAndSend("/topic/conversation/" + conversationId + "/typing", Map.of(
-                "userId", userAccountRepository.findByEmail(user.getUsername()).orElseThrow().getId(),
-                "isTyping", isTyping
-            ));
+            // The user ID comes from the principal resolved at CONNECT, so no lookup is needed
+            typingIndicatorService.update(conversationId, user.getId(), isTyping);
         } catch (Exception e) {
             log.error("Error handling typing indicator: {}", e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Handle course channel messages. The message is published once to
+     * /topic/course/{courseId}/chat and fanned out by the broker.
+     * Client sends to: /app/course.chat.send
+     */
+    @MessageMapping("/course.chat.send")
+    public void sendCourseChannelMessage(@Payload Map<String, Object> payload,
+                                         @AuthenticationPrincipal JwtUser user) {
+        try {
+            Long courseId = Long.parseLong(payload.get("courseId").toString());
+            String content = payload.get("content") != null ? payload.get("content").toString() : "";
+            String attachmentUrl = payload.get("attachmentUrl") != null ? payload.get("attachmentUrl").toString() : null;
+            String attachmentName = payload.get("attachmentName") != null ? payload.get("attachmentName").toString() : null;
+
+            courseChannelService.post(courseId, user.getId(), content, attachmentUrl, attachmentName);
+        } catch (Exception e) {
+            log.error("Error handling course channel message: {}", e.getMessage(), e);
+        }
+    }
+}
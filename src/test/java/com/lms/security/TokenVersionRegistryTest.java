@@ -0,0 +1,76 @@
+package com.lms.security;
+
+import com.lms.repository.UserAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests token version checks and revocation.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+class TokenVersionRegistryTest {
+
+    private static final String EMAIL = "student@example.com";
+
+    private UserAccountRepository userAccountRepository;
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userAccountRepository = mock(UserAccountRepository.class);
+        registry = new TokenVersionRegistry(userAccountRepository, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void currentTokenIsTrustedAndVersionIsCached() {
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.of(2L));
+
+        assertTrue(registry.isCurrent(EMAIL, 2));
+        assertTrue(registry.isCurrent(EMAIL, 3));
+        assertFalse(registry.isCurrent(EMAIL, 1));
+        verify(userAccountRepository, times(1)).findTokenVersionByEmail(EMAIL);
+    }
+
+    @Test
+    void revokeRejectsTokensIssuedBefore() {
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.of(0L), Optional.of(1L));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        registry.revoke(EMAIL);
+
+        verify(userAccountRepository).incrementTokenVersion(EMAIL);
+        assertFalse(registry.isCurrent(EMAIL, 0));
+        assertTrue(registry.isCurrent(EMAIL, 1));
+    }
+
+    @Test
+    void unknownAccountTrustsNoToken() {
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertEquals(TokenVersionRegistry.UNKNOWN_ACCOUNT, registry.currentVersion(EMAIL));
+        assertFalse(registry.isCurrent(EMAIL, 0));
+        assertFalse(registry.isCurrent(EMAIL, Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void unknownAccountIsNotCached() {
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.empty(), Optional.of(0L));
+
+        assertFalse(registry.isCurrent(EMAIL, 0));
+        // Registered right after the first lookup
+        assertTrue(registry.isCurrent(EMAIL, 0));
+    }
+}
@@ -0,0 +1,157 @@
+package com.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.domain.UserAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that failed write-behind batches are retried on their own and keep their journal
+ * segment until they are persisted.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+class MessageWriteBehindServiceTest {
+
+    private static final Long CONVERSATION_ID = 10L;
+    private static final Long SENDER_ID = 1L;
+    private static final Long RECIPIENT_ID = 2L;
+
+    @TempDir
+    Path journalDir;
+
+    private final AtomicBoolean databaseDown = new AtomicBoolean(true);
+    private final List<List<Long>> insertedBatches = new CopyOnWriteArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private ConversationMembershipCache membershipCache;
+    private SimpleMeterRegistry meterRegistry;
+    private MessageWriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO messages"), anyCollection(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    if (databaseDown.get()) {
+                        throw new DataAccessResourceFailureException("Connection refused");
+                    }
+                    Collection<PendingMessage> batch = invocation.getArgument(1);
+                    insertedBatches.add(batch.stream().map(PendingMessage::id).toList());
+                    return new int[0][];
+                });
+
+        membershipCache = mock(ConversationMembershipCache.class);
+        when(membershipCache.get(CONVERSATION_ID)).thenReturn(new ConversationMembershipCache.Membership(CONVERSATION_ID,
+                new ConversationMembershipCache.Participant(SENDER_ID, "Sender", "sender@example.com", UserAccount.UserType.STUDENT),
+                new ConversationMembershipCache.Participant(RECIPIENT_ID, "Recipient", "recipient@example.com", UserAccount.UserType.TEACHER)));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        databaseDown.set(false);
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetriedAloneAndKeepsItsSegment() throws Exception {
+        start(100);
+
+        Long first = send();
+        await(() -> flushFailures() >= 1);
+        assertEquals(2, segmentCount());
+
+        // Sent while the first batch is failing; must not be folded into the retried batch
+        Long second = send();
+        await(() -> flushFailures() >= 2);
+
+        databaseDown.set(false);
+        await(() -> insertedBatches.size() >= 2);
+        assertEquals(List.of(List.of(first), List.of(second)), insertedBatches);
+        await(() -> segmentCount() == 1);
+    }
+
+    @Test
+    void outstandingBatchCountsAgainstMaxPending() throws Exception {
+        start(1);
+
+        send();
+        await(() -> flushFailures() >= 1);
+        assertEquals(1.0, meterRegistry.get("messaging.writebehind.pending").gauge().value());
+
+        RuntimeException e = assertThrows(RuntimeException.class, this::send);
+        assertEquals("Messaging is busy, please retry shortly", e.getMessage());
+
+        databaseDown.set(false);
+        await(() -> insertedBatches.size() == 1);
+        await(() -> meterRegistry.get("messaging.writebehind.pending").gauge().value() == 0);
+        send();
+    }
+
+    private void start(int maxPending) throws Exception {
+        service = new MessageWriteBehindService(membershipCache, mock(RealtimeDeliveryService.class),
+                mock(UnreadCounterService.class), mock(ConversationSummaryService.class),
+                mock(MessageSearchService.class), jdbcTemplate, mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, Duration.ofMillis(10),
+                500, maxPending, 200, journalDir.toString(), false);
+        service.run(new DefaultApplicationArguments());
+    }
+
+    private Long send() {
+        return service.send(CONVERSATION_ID, SENDER_ID, "Hello", null, null).getId();
+    }
+
+    private double flushFailures() {
+        return meterRegistry.counter("messaging.writebehind.flush.failures").count();
+    }
+
+    private long segmentCount() {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
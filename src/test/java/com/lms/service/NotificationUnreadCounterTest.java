@@ -0,0 +1,77 @@
+package com.lms.service;
+
+import com.lms.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the local unread notification counter.
+ *
+ * @author VisionWaves
+ * @version 1.0
+ */
+class NotificationUnreadCounterTest {
+
+    private static final Long USER_ID = 7L;
+
+    private NotificationRepository notificationRepository;
+    private NotificationUnreadCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        counter = new NotificationUnreadCounter(notificationRepository, mock(StringRedisTemplate.class),
+                Duration.ofMinutes(30), 1000);
+    }
+
+    @Test
+    void deltaForWriteBeforeLoadIsApplied() {
+        when(notificationRepository.countUnreadByUserId(USER_ID)).thenReturn(3L);
+        counter.get(USER_ID);
+
+        assertEquals(4L, counter.adjust(USER_ID, 1, afterLoad()));
+        assertEquals(4L, counter.get(USER_ID));
+        verify(notificationRepository, times(1)).countUnreadByUserId(USER_ID);
+    }
+
+    @Test
+    void deltaForWriteCommittedDuringLoadDropsCounter() {
+        // The load already sees the new notification, so its +1 must not be added again
+        when(notificationRepository.countUnreadByUserId(USER_ID)).thenReturn(4L);
+        counter.get(USER_ID);
+
+        assertNull(counter.adjust(USER_ID, 1, System.currentTimeMillis()));
+        assertEquals(4L, counter.get(USER_ID));
+        verify(notificationRepository, times(2)).countUnreadByUserId(USER_ID);
+    }
+
+    @Test
+    void deltaNeverDrivesCounterBelowZero() {
+        when(notificationRepository.countUnreadByUserId(USER_ID)).thenReturn(1L);
+        counter.get(USER_ID);
+
+        assertEquals(0L, counter.adjust(USER_ID, -5, afterLoad()));
+        assertEquals(0L, counter.get(USER_ID));
+        assertEquals(1L, counter.adjust(USER_ID, 1, afterLoad()));
+    }
+
+    @Test
+    void deltaForUnloadedCounterIsIgnored() {
+        assertNull(counter.adjust(USER_ID, 1, afterLoad()));
+        verify(notificationRepository, times(0)).countUnreadByUserId(USER_ID);
+    }
+
+    private static long afterLoad() {
+        return System.currentTimeMillis() + NotificationUnreadCounter.LOAD_RACE_MARGIN_MS + 1000;
+    }
+}